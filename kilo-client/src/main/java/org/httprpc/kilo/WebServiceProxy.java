@@ -48,6 +48,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 import static org.httprpc.kilo.util.Collections.*;
 import static org.httprpc.kilo.util.Optionals.*;
@@ -252,6 +253,11 @@ public class WebServiceProxy {
          */
         int readTimeout() default -1;
 
+        /**
+         * Indicates that the read timeout should be sent to the server.
+         */
+        boolean propagateTimeout() default false;
+
         /**
          * The chunk size.
          */
@@ -427,6 +433,10 @@ public class WebServiceProxy {
                 webServiceProxy.setReadTimeout(readTimeout);
             }
 
+            if (configuration.propagateTimeout()) {
+                webServiceProxy.setTimeoutPropagated(true);
+            }
+
             var chunkSize = configuration.chunkSize();
 
             if (chunkSize >= 0) {
@@ -486,6 +496,7 @@ public class WebServiceProxy {
 
     private int connectTimeout = 15000;
     private int readTimeout = 60000;
+    private boolean timeoutPropagated = false;
     private int chunkSize = 0;
 
     private int statusCode = -1;
@@ -697,6 +708,30 @@ public class WebServiceProxy {
         this.readTimeout = readTimeout;
     }
 
+    /**
+     * Indicates that the read timeout will be sent to the server.
+     *
+     * @return
+     * {@code true} if the read timeout will be sent to the server;
+     * {@code false}, otherwise.
+     */
+    public boolean isTimeoutPropagated() {
+        return timeoutPropagated;
+    }
+
+    /**
+     * Toggles read timeout propagation. When enabled, the read timeout is sent
+     * to the server in the "Request-Timeout" header, allowing the server to
+     * abandon work that will not complete before the client stops waiting.
+     *
+     * @param timeoutPropagated
+     * {@code true} to send the read timeout to the server; {@code false},
+     * otherwise.
+     */
+    public void setTimeoutPropagated(boolean timeoutPropagated) {
+        this.timeoutPropagated = timeoutPropagated;
+    }
+
     /**
      * Returns the chunk size.
      *
@@ -760,6 +795,12 @@ public class WebServiceProxy {
             locale.getLanguage().toLowerCase(),
             locale.getCountry().toLowerCase()));
 
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+
+        if (timeoutPropagated && readTimeout > 0) {
+            connection.setRequestProperty("Request-Timeout", String.valueOf(readTimeout));
+        }
+
         // Apply headers
         for (Map.Entry<String, ?> entry : headers.entrySet()) {
             var key = entry.getKey();
@@ -795,12 +836,14 @@ public class WebServiceProxy {
         Object result;
         if (statusCode / 100 == 2) {
             if (statusCode % 100 < 4) {
-                try (var inputStream = connection.getInputStream()) {
+                try (var inputStream = getInputStream(connection)) {
                     result = responseHandler.decodeResponse(inputStream, contentType);
                 }
             } else {
                 result = null;
             }
+        } else if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            result = null;
         } else {
             try (var errorStream = connection.getErrorStream()) {
                 errorHandler.handleResponse(errorStream, contentType, statusCode);
@@ -812,6 +855,18 @@ public class WebServiceProxy {
         return result;
     }
 
+    private static InputStream getInputStream(HttpURLConnection connection) throws IOException {
+        var inputStream = connection.getInputStream();
+
+        var contentEncoding = connection.getContentEncoding();
+
+        if (contentEncoding != null && contentEncoding.equalsIgnoreCase("gzip")) {
+            return new GZIPInputStream(inputStream);
+        } else {
+            return inputStream;
+        }
+    }
+
     private static String encodeQuery(Map<?, ?> arguments) {
         var queryBuilder = new StringBuilder(256);
 
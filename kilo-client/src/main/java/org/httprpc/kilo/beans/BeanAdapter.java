@@ -54,6 +54,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
 
 import static org.httprpc.kilo.util.Optionals.*;
 
@@ -630,6 +631,10 @@ public class BeanAdapter extends AbstractMap<String, Object> {
      * {@link List}, the adapter will support the {@link List#get(int)}
      * method.</p>
      *
+     * <p>If the value is a {@link BaseStream}, it is wrapped in a {@link List}
+     * that will lazily traverse the stream and recursively adapt its elements.
+     * The stream is not closed by the adapter.</p>
+     *
      * <p>If the value is a {@link Map}, it is wrapped in a {@link Map} that
      * will recursively adapt the map's values.</p>
      *
@@ -662,6 +667,8 @@ public class BeanAdapter extends AbstractMap<String, Object> {
             return new RecordAdapter(value);
         } else if (value instanceof Iterable<?> iterable) {
             return new IterableAdapter(iterable);
+        } else if (value instanceof BaseStream<?, ?> stream) {
+            return new IterableAdapter(iterable(stream));
         } else if (value instanceof Map<?, ?> map) {
             return new MapAdapter(map);
         } else {
@@ -669,6 +676,10 @@ public class BeanAdapter extends AbstractMap<String, Object> {
         }
     }
 
+    private static <T> Iterable<T> iterable(BaseStream<T, ?> stream) {
+        return stream::iterator;
+    }
+
     /**
      * <p>Coerces a value to a given type. If the value is already an instance
      * of the target type, it is returned as is. Otherwise, if the type is one
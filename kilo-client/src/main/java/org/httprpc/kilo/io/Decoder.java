@@ -14,6 +14,9 @@
 
 package org.httprpc.kilo.io;
 
+import jdk.jfr.EventType;
+
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -28,8 +31,40 @@ import java.nio.charset.StandardCharsets;
  * The type of value produced by the decoder.
  */
 public abstract class Decoder<T> {
+    private static class CountingInputStream extends FilterInputStream {
+        long count = 0;
+
+        CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var b = in.read();
+
+            if (b != -1) {
+                count++;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var n = in.read(b, off, len);
+
+            if (n > 0) {
+                count += n;
+            }
+
+            return n;
+        }
+    }
+
     private Charset charset = StandardCharsets.UTF_8;
 
+    private static final EventType decodeEventType = EventType.getEventType(DecodeEvent.class);
+
     /**
      * Represents an "end of file" character.
      */
@@ -76,7 +111,28 @@ public abstract class Decoder<T> {
             throw new IllegalArgumentException();
         }
 
-        return read(new InputStreamReader(inputStream, charset));
+        if (decodeEventType.isEnabled()) {
+            var event = new DecodeEvent();
+
+            var countingInputStream = new CountingInputStream(inputStream);
+
+            event.begin();
+
+            try {
+                return read(new InputStreamReader(countingInputStream, charset));
+            } finally {
+                event.end();
+
+                if (event.shouldCommit()) {
+                    event.decoder = getClass().getName();
+                    event.bytesRead = countingInputStream.count;
+
+                    event.commit();
+                }
+            }
+        } else {
+            return read(new InputStreamReader(inputStream, charset));
+        }
     }
 
     /**
@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo.io;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.httprpc.kilo.io.Encode")
+@Label("Encode")
+@Description("Encodes a value to an output stream.")
+@Category({"Kilo", "I/O"})
+@StackTrace(false)
+class EncodeEvent extends jdk.jfr.Event {
+    @Label("Encoder")
+    String encoder;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+}
@@ -14,6 +14,9 @@
 
 package org.httprpc.kilo.io;
 
+import jdk.jfr.EventType;
+
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -28,8 +31,32 @@ import java.nio.charset.StandardCharsets;
  * The type of value consumed by the encoder.
  */
 public abstract class Encoder<T> {
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count = 0;
+
+        CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+
+            count += len;
+        }
+    }
+
     private Charset charset = StandardCharsets.UTF_8;
 
+    private static final EventType encodeEventType = EventType.getEventType(EncodeEvent.class);
+
     /**
      * Returns the character set to use when encoding to an output stream.
      *
@@ -71,7 +98,28 @@ public abstract class Encoder<T> {
             throw new IllegalArgumentException();
         }
 
-        write(value, new OutputStreamWriter(outputStream, charset));
+        if (encodeEventType.isEnabled()) {
+            var event = new EncodeEvent();
+
+            var countingOutputStream = new CountingOutputStream(outputStream);
+
+            event.begin();
+
+            try {
+                write(value, new OutputStreamWriter(countingOutputStream, charset));
+            } finally {
+                event.end();
+
+                if (event.shouldCommit()) {
+                    event.encoder = getClass().getName();
+                    event.bytesWritten = countingOutputStream.count;
+
+                    event.commit();
+                }
+            }
+        } else {
+            write(value, new OutputStreamWriter(outputStream, charset));
+        }
     }
 
     /**
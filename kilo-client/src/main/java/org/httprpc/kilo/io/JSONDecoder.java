@@ -17,15 +17,20 @@ package org.httprpc.kilo.io;
 import org.httprpc.kilo.beans.BeanAdapter;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Decodes JSON content.
@@ -72,7 +77,6 @@ public class JSONDecoder extends Decoder<Object> {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Object read(Reader reader) throws IOException {
         if (reader == null) {
             throw new IllegalArgumentException();
@@ -87,7 +91,147 @@ public class JSONDecoder extends Decoder<Object> {
         skipWhitespace(reader);
 
         while (c != EOF) {
+            if (c == ',') {
+                c = reader.read();
+
+                skipWhitespace(reader);
+            } else {
+                value = readValue(reader);
+            }
+        }
+
+        if (elementType != null) {
+            if (!(value instanceof List<?>)) {
+                throw new UnsupportedOperationException("Value is not a list.");
+            }
+
+            return value;
+        }
+
+        return BeanAdapter.toGenericType(value, type);
+    }
+
+    /**
+     * Reads a sequence of values from an input stream.
+     *
+     * @param inputStream
+     * The input stream to read from.
+     *
+     * @return
+     * An iterator over the decoded values.
+     *
+     * @throws IOException
+     * If an exception occurs.
+     *
+     * @see #iterate(Reader)
+     */
+    public Iterator<Object> iterate(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException();
+        }
+
+        return iterate(new InputStreamReader(inputStream, getCharset()));
+    }
+
+    /**
+     * Reads a sequence of values from a character stream. The content must
+     * be a JSON array. Elements are decoded one at a time as the iterator is
+     * traversed, and are converted to the decoder's result type. Errors
+     * encountered during traversal are reported as
+     * {@link UncheckedIOException}.
+     *
+     * @param reader
+     * The character stream to read from.
+     *
+     * @return
+     * An iterator over the decoded values.
+     *
+     * @throws IOException
+     * If an exception occurs.
+     */
+    public Iterator<Object> iterate(Reader reader) throws IOException {
+        if (reader == null) {
+            throw new IllegalArgumentException();
+        }
+
+        var bufferedReader = new BufferedReader(reader);
+
+        c = bufferedReader.read();
+
+        skipWhitespace(bufferedReader);
+
+        if (c != '[') {
+            throw new IOException("Value is not an array.");
+        }
+
+        c = bufferedReader.read();
+
+        return new Iterator<>() {
+            boolean done = false;
+
+            Object next = null;
+            boolean hasNext = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!hasNext && !done) {
+                    try {
+                        skipWhitespace(bufferedReader);
+
+                        while (c == ',') {
+                            c = bufferedReader.read();
+
+                            skipWhitespace(bufferedReader);
+                        }
+
+                        if (c == ']') {
+                            done = true;
+                        } else if (c == EOF) {
+                            throw new IOException("Unterminated container.");
+                        } else {
+                            next = BeanAdapter.toGenericType(readValue(bufferedReader), type);
+                            hasNext = true;
+                        }
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception.getMessage(), exception);
+                    }
+                }
+
+                return hasNext;
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                var value = next;
+
+                next = null;
+                hasNext = false;
+
+                return value;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readValue(Reader reader) throws IOException {
+        var depth = containers.size();
+
+        Object value = null;
+
+        do {
+            if (c == EOF) {
+                throw new IOException("Unterminated container.");
+            }
+
             if (c == ']' || c == '}') {
+                if (containers.size() == depth) {
+                    throw new IOException(String.format("Unexpected character (0x%04X).", c));
+                }
+
                 value = containers.pop();
 
                 if (elementType != null && containers.size() == 1 && containers.peek() instanceof List<?> list) {
@@ -170,21 +314,9 @@ public class JSONDecoder extends Decoder<Object> {
             }
 
             skipWhitespace(reader);
-        }
+        } while (containers.size() > depth);
 
-        if (!containers.isEmpty()) {
-            throw new IOException("Unterminated container.");
-        }
-
-        if (elementType != null) {
-            if (!(value instanceof List<?>)) {
-                throw new UnsupportedOperationException("Value is not a list.");
-            }
-
-            return value;
-        }
-
-        return BeanAdapter.toGenericType(value, type);
+        return value;
     }
 
     private void skipWhitespace(Reader reader) throws IOException {
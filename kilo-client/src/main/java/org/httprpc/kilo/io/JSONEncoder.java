@@ -27,8 +27,14 @@ import java.util.Map;
 public class JSONEncoder extends Encoder<Object> {
     private boolean compact;
 
+    private int flushCount = 0;
+    private int flushInterval = 0;
+
     private int depth = 0;
 
+    private int count = 0;
+    private long flushTime = 0;
+
     /**
      * Constructs a new JSON encoder.
      */
@@ -47,6 +53,61 @@ public class JSONEncoder extends Encoder<Object> {
         this.compact = compact;
     }
 
+    /**
+     * Returns the flush count.
+     *
+     * @return
+     * The number of root-level array elements to write before flushing the
+     * output, or 0 if output should not be flushed by count.
+     */
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Sets the flush count.
+     *
+     * @param flushCount
+     * The number of root-level array elements to write before flushing the
+     * output, or 0 if output should not be flushed by count.
+     */
+    public void setFlushCount(int flushCount) {
+        if (flushCount < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.flushCount = flushCount;
+    }
+
+    /**
+     * Returns the flush interval.
+     *
+     * @return
+     * The maximum number of milliseconds to wait between flushes while
+     * writing root-level array elements, or 0 if output should not be flushed
+     * by time.
+     */
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Sets the flush interval. The output is flushed after the first element
+     * and then whenever the interval has elapsed.
+     *
+     * @param flushInterval
+     * The maximum number of milliseconds to wait between flushes while
+     * writing root-level array elements, or 0 if output should not be flushed
+     * by time.
+     */
+    public void setFlushInterval(int flushInterval) {
+        if (flushInterval < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.flushInterval = flushInterval;
+    }
+
     @Override
     public void write(Object value, Writer writer) throws IOException {
         if (writer == null) {
@@ -55,6 +116,9 @@ public class JSONEncoder extends Encoder<Object> {
 
         writer = new BufferedWriter(writer);
 
+        count = 0;
+        flushTime = 0;
+
         try {
             encode(BeanAdapter.adapt(value), writer);
         } finally {
@@ -156,6 +220,10 @@ public class JSONEncoder extends Encoder<Object> {
 
             encode(element, writer);
 
+            if (depth == 1) {
+                flush(writer);
+            }
+
             i++;
         }
 
@@ -218,6 +286,26 @@ public class JSONEncoder extends Encoder<Object> {
         writer.write("}");
     }
 
+    private void flush(Writer writer) throws IOException {
+        count++;
+
+        var flush = flushCount > 0 && count % flushCount == 0;
+
+        if (flushInterval > 0) {
+            var now = System.currentTimeMillis();
+
+            if (now - flushTime >= flushInterval) {
+                flushTime = now;
+
+                flush = true;
+            }
+        }
+
+        if (flush) {
+            writer.flush();
+        }
+    }
+
     private void indent(Writer writer) throws IOException {
         for (var i = 0; i < depth; i++) {
             writer.write("  ");
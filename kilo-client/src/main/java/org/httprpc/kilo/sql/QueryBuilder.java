@@ -14,6 +14,7 @@
 
 package org.httprpc.kilo.sql;
 
+import jdk.jfr.EventType;
 import org.httprpc.kilo.beans.BeanAdapter;
 import org.httprpc.kilo.io.JSONDecoder;
 import org.httprpc.kilo.io.JSONEncoder;
@@ -72,6 +73,8 @@ public class QueryBuilder {
 
     private static final int INITIAL_CAPACITY = 1024;
 
+    private static final EventType queryEventType = EventType.getEventType(QueryEvent.class);
+
     private static final String WHERE = "where";
     private static final String AND = "and";
 
@@ -1336,7 +1339,11 @@ public class QueryBuilder {
 
         apply(statement, arguments);
 
-        return new ResultSetAdapter(statement.executeQuery(), transforms);
+        var event = begin();
+
+        var resultSet = statement.executeQuery();
+
+        return new ResultSetAdapter(resultSet, transforms, (event == null) ? null : rowCount -> commit(event, "query", rowCount));
     }
 
     /**
@@ -1365,8 +1372,12 @@ public class QueryBuilder {
 
         apply(statement, arguments);
 
+        var event = begin();
+
         var updateCount = statement.executeUpdate();
 
+        commit(event, "update", updateCount);
+
         try (var generatedKeys = statement.getGeneratedKeys()) {
             if (generatedKeys.next()) {
                 var generatedKeysMetaData = generatedKeys.getMetaData();
@@ -1425,7 +1436,39 @@ public class QueryBuilder {
 
         apply(statement, arguments);
 
+        var event = begin();
+
         statement.addBatch();
+
+        commit(event, "batch", -1);
+    }
+
+    private static QueryEvent begin() {
+        if (!queryEventType.isEnabled()) {
+            return null;
+        }
+
+        var event = new QueryEvent();
+
+        event.begin();
+
+        return event;
+    }
+
+    private void commit(QueryEvent event, String operation, long rowCount) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.sqlHash = toString().hashCode();
+            event.rowCount = rowCount;
+
+            event.commit();
+        }
     }
 
     private void apply(PreparedStatement statement, Map<String, ?> arguments) throws SQLException {
@@ -0,0 +1,37 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo.sql;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.httprpc.kilo.sql.Query")
+@Label("Query")
+@Description("Executes a query or adds a batch to a prepared statement. The duration of a query includes the time spent reading its results.")
+@Category({"Kilo", "SQL"})
+class QueryEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("SQL Hash")
+    @Description("The hash code of the SQL text.")
+    int sqlHash;
+
+    @Label("Row Count")
+    @Description("The number of rows read from a query or affected by an update, or -1 for a batch.")
+    long rowCount = -1;
+}
@@ -22,6 +22,7 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -34,8 +35,12 @@ public class ResultSetAdapter implements Iterable<Map<String, Object>>, AutoClos
     private ResultSet resultSet;
     private Map<String, Function<Object, Object>> transforms;
 
+    private LongConsumer closeHandler;
+
     private ResultSetMetaData resultSetMetaData;
 
+    private long rowCount = 0;
+
     private Iterator<Map<String, Object>> iterator = new Iterator<>() {
         Boolean hasNext = null;
 
@@ -88,13 +93,16 @@ public class ResultSetAdapter implements Iterable<Map<String, Object>>, AutoClos
 
             hasNext = null;
 
+            rowCount++;
+
             return row;
         }
     };
 
-    ResultSetAdapter(ResultSet resultSet, Map<String, Function<Object, Object>> transforms) {
+    ResultSetAdapter(ResultSet resultSet, Map<String, Function<Object, Object>> transforms, LongConsumer closeHandler) {
         this.resultSet = resultSet;
         this.transforms = transforms;
+        this.closeHandler = closeHandler;
 
         try {
             resultSetMetaData = resultSet.getMetaData();
@@ -140,7 +148,15 @@ public class ResultSetAdapter implements Iterable<Map<String, Object>>, AutoClos
      */
     @Override
     public void close() throws SQLException {
-        resultSet.close();
+        try {
+            resultSet.close();
+        } finally {
+            if (closeHandler != null) {
+                closeHandler.accept(rowCount);
+
+                closeHandler = null;
+            }
+        }
     }
 
     /**
@@ -38,6 +38,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.httprpc.kilo.util.Collections.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -215,6 +217,12 @@ public class BeanAdapterTest {
         assertEquals(listOf(1, 2, 3), BeanAdapter.adapt(new int[] {1, 2, 3}));
     }
 
+    @Test
+    public void testStreamAdapter() {
+        assertEquals(listOf(1, 2, 3), BeanAdapter.adapt(Stream.of(1, 2, 3)));
+        assertEquals(listOf(1, 2, 3), BeanAdapter.adapt(IntStream.of(1, 2, 3)));
+    }
+
     @Test
     public void testArrayCoercion() {
         assertArrayEquals(new int[]{1, 2, 3}, (int[]) BeanAdapter.coerce(new String[] {"1", "2", "3"}, Integer.TYPE.arrayType()));
@@ -19,9 +19,11 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.function.Supplier;
 
 import static org.httprpc.kilo.util.Collections.*;
@@ -172,6 +174,62 @@ public class JSONDecoderTest {
         assertThrows(UnsupportedOperationException.class, () -> decode("\"abc\"", () -> new JSONDecoder(new ListType(Double.class))));
     }
 
+    @Test
+    public void testIterate() throws IOException {
+        var jsonDecoder = new JSONDecoder(Row.class);
+
+        var iterator = jsonDecoder.iterate(new StringReader("[{\"a\": \"hello\", \"b\": 123, \"c\": true},, {\"a\": \"goodbye\", \"b\": 456, \"c\": false}]"));
+
+        var row1 = (Row)iterator.next();
+
+        assertEquals("hello", row1.getA());
+        assertEquals(123, row1.getB());
+        assertTrue(row1.isC());
+
+        assertTrue(iterator.hasNext());
+
+        var row2 = (Row)iterator.next();
+
+        assertEquals("goodbye", row2.getA());
+        assertEquals(456, row2.getB());
+        assertFalse(row2.isC());
+
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void testIterateEmpty() throws IOException {
+        var jsonDecoder = new JSONDecoder();
+
+        assertFalse(jsonDecoder.iterate(new StringReader(" [ ] ")).hasNext());
+    }
+
+    @Test
+    public void testIterateNested() throws IOException {
+        var jsonDecoder = new JSONDecoder(new ListType(Integer.class));
+
+        var iterator = jsonDecoder.iterate(new StringReader("[[1], [2, 3], [\"4\", 5, 6]]"));
+
+        assertEquals(listOf(1), iterator.next());
+        assertEquals(listOf(2, 3), iterator.next());
+        assertEquals(listOf(4, 5, 6), iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testIterateInvalid() throws IOException {
+        var jsonDecoder = new JSONDecoder();
+
+        assertThrows(IOException.class, () -> jsonDecoder.iterate(new StringReader("{}")));
+
+        var iterator = new JSONDecoder().iterate(new StringReader("[1, 2"));
+
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        assertThrows(UncheckedIOException.class, iterator::hasNext);
+    }
+
     @Test
     public void testObject() throws IOException {
         var expected = mapOf(
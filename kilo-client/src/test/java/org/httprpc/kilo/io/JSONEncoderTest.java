@@ -28,6 +28,7 @@ import java.time.Period;
 import java.util.Date;
 import java.util.UUID;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.httprpc.kilo.util.Collections.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -167,6 +168,53 @@ public class JSONEncoderTest {
         assertEquals(String.format("\"%s\"", uuid), encode(uuid));
     }
 
+    @Test
+    public void testStream() throws IOException {
+        assertEquals("[1,2,3]", encode(Stream.of(1, 2, 3), () -> new JSONEncoder(true)));
+    }
+
+    @Test
+    public void testFlushCount() throws IOException {
+        var jsonEncoder = new JSONEncoder(true);
+
+        jsonEncoder.setFlushCount(2);
+
+        var writer = new StringWriter() {
+            int flushCount = 0;
+
+            @Override
+            public void flush() {
+                flushCount++;
+            }
+        };
+
+        jsonEncoder.write(Stream.of(listOf(1, 2), listOf(3, 4), listOf(5, 6), listOf(7, 8), listOf(9)), writer);
+
+        assertEquals("[[1,2],[3,4],[5,6],[7,8],[9]]", writer.toString());
+        assertEquals(3, writer.flushCount);
+    }
+
+    @Test
+    public void testFlushInterval() throws IOException {
+        var jsonEncoder = new JSONEncoder(true);
+
+        jsonEncoder.setFlushInterval(60000);
+
+        var writer = new StringWriter() {
+            int flushCount = 0;
+
+            @Override
+            public void flush() {
+                flushCount++;
+            }
+        };
+
+        jsonEncoder.write(Stream.of(1, 2, 3), writer);
+
+        assertEquals("[1,2,3]", writer.toString());
+        assertEquals(2, writer.flushCount);
+    }
+
     @Test
     public void testCompact() throws IOException {
         var expected = "{\"a\":1,\"b\":2,\"c\":3}";
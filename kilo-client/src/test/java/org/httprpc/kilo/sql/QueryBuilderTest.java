@@ -16,10 +16,21 @@ package org.httprpc.kilo.sql;
 
 import org.httprpc.kilo.Name;
 import org.httprpc.kilo.Required;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -551,6 +562,76 @@ public class QueryBuilderTest {
         }
     }
 
+    @Test
+    public void testQueryEvents() throws SQLException, IOException {
+        var queryBuilder = new QueryBuilder().append("select a from A");
+
+        var statement = createStatement(3);
+
+        List<RecordedEvent> events;
+        try (var recording = new Recording()) {
+            recording.enable("org.httprpc.kilo.sql.Query");
+
+            recording.start();
+
+            try (var results = queryBuilder.executeQuery(statement, mapOf())) {
+                assertEquals(3, results.stream().count());
+            }
+
+            queryBuilder.addBatch(statement, mapOf());
+
+            recording.stop();
+
+            var path = Files.createTempFile("kilo", ".jfr");
+
+            try {
+                recording.dump(path);
+
+                events = RecordingFile.readAllEvents(path);
+            } finally {
+                Files.delete(path);
+            }
+        }
+
+        assertEquals(2, events.size());
+
+        assertEquals("query", events.get(0).getString("operation"));
+        assertEquals(queryBuilder.toString().hashCode(), events.get(0).getInt("sqlHash"));
+        assertEquals(3, events.get(0).getLong("rowCount"));
+
+        assertEquals("batch", events.get(1).getString("operation"));
+        assertEquals(-1, events.get(1).getLong("rowCount"));
+    }
+
+    private static PreparedStatement createStatement(int rowCount) {
+        var resultSetMetaData = (ResultSetMetaData)Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class}, (proxy, method, arguments) -> switch (method.getName()) {
+            case "getColumnCount" -> 1;
+            case "getColumnLabel" -> "a";
+            default -> throw new UnsupportedOperationException();
+        });
+
+        var resultSet = (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class}, new InvocationHandler() {
+            int row = 0;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] arguments) {
+                return switch (method.getName()) {
+                    case "next" -> row++ < rowCount;
+                    case "getMetaData" -> resultSetMetaData;
+                    case "getObject" -> row;
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException();
+                };
+            }
+        });
+
+        return (PreparedStatement)Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, (proxy, method, arguments) -> switch (method.getName()) {
+            case "executeQuery" -> resultSet;
+            case "addBatch" -> null;
+            default -> throw new UnsupportedOperationException();
+        });
+    }
+
     private static List<String> getParameters(QueryBuilder queryBuilder) {
         var n = queryBuilder.getParameterCount();
 
@@ -0,0 +1,475 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronously records service requests to a log file. Requests are
+ * submitted to a lock-free ring buffer and written in batches by a single
+ * background thread, which is started when the first request is recorded.
+ * The log file is rolled when it reaches a configurable size.
+ */
+public class AccessLog implements AutoCloseable {
+    /**
+     * Overflow policies.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discards requests that are recorded while the buffer is full.
+         */
+        DROP,
+
+        /**
+         * Waits for space to become available in the buffer.
+         */
+        BLOCK
+    }
+
+    private static class Entry {
+        final long time;
+
+        final String method;
+        final String path;
+        final int status;
+        final long bytes;
+        final long latency;
+        final String principal;
+
+        Entry(long time, String method, String path, int status, long bytes, long latency, String principal) {
+            this.time = time;
+            this.method = method;
+            this.path = path;
+            this.status = status;
+            this.bytes = bytes;
+            this.latency = latency;
+            this.principal = principal;
+        }
+    }
+
+    private Path path;
+
+    private int capacity = 65536;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private long maximumFileSize = 64L * 1024 * 1024;
+    private int maximumFileCount = 4;
+
+    private volatile RingBuffer<Entry> ringBuffer = null;
+
+    private Thread writerThread = null;
+
+    private volatile boolean closed = false;
+
+    private LongAdder dropped = new LongAdder();
+
+    private OutputStream outputStream = null;
+    private long size = 0;
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final long IDLE_TIME = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long WAIT_TIME = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final System.Logger logger = System.getLogger(AccessLog.class.getName());
+
+    /**
+     * Constructs a new access log.
+     *
+     * @param path
+     * The path to the log file.
+     */
+    public AccessLog(Path path) {
+        if (path == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.path = path;
+    }
+
+    /**
+     * Returns the path to the log file.
+     *
+     * @return
+     * The path to the log file.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the buffer capacity.
+     *
+     * @return
+     * The maximum number of requests that can be waiting to be written.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the buffer capacity.
+     *
+     * @param capacity
+     * The maximum number of requests that can be waiting to be written. The
+     * value is rounded up to the nearest power of two.
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException();
+        }
+
+        checkState();
+
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+
+        if (this.capacity == 0) {
+            this.capacity = 1;
+        }
+    }
+
+    /**
+     * Returns the overflow policy.
+     *
+     * @return
+     * The action to take when the buffer is full.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Sets the overflow policy.
+     *
+     * @param overflowPolicy
+     * The action to take when the buffer is full.
+     */
+    public synchronized void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException();
+        }
+
+        checkState();
+
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Returns the maximum file size.
+     *
+     * @return
+     * The size at which the log file will be rolled, in bytes.
+     */
+    public long getMaximumFileSize() {
+        return maximumFileSize;
+    }
+
+    /**
+     * Sets the maximum file size.
+     *
+     * @param maximumFileSize
+     * The size at which the log file will be rolled, in bytes, or 0 to disable
+     * rolling.
+     */
+    public synchronized void setMaximumFileSize(long maximumFileSize) {
+        if (maximumFileSize < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        checkState();
+
+        this.maximumFileSize = maximumFileSize;
+    }
+
+    /**
+     * Returns the maximum file count.
+     *
+     * @return
+     * The number of rolled files to retain.
+     */
+    public int getMaximumFileCount() {
+        return maximumFileCount;
+    }
+
+    /**
+     * Sets the maximum file count.
+     *
+     * @param maximumFileCount
+     * The number of rolled files to retain. Rolled files are named by appending
+     * a sequence number to the log file's name; ".1" identifies the most
+     * recent.
+     */
+    public synchronized void setMaximumFileCount(int maximumFileCount) {
+        if (maximumFileCount < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        checkState();
+
+        this.maximumFileCount = maximumFileCount;
+    }
+
+    private void checkState() {
+        if (ringBuffer != null) {
+            throw new IllegalStateException("Access log is already active.");
+        }
+    }
+
+    /**
+     * Returns the number of requests that were discarded because the buffer
+     * was full or the log was closed.
+     *
+     * @return
+     * The number of discarded requests.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    void log(String method, String path, int status, long bytes, long latency, String principal) {
+        if (closed) {
+            dropped.increment();
+
+            return;
+        }
+
+        var entry = new Entry(System.currentTimeMillis(), method, path, status, bytes, latency, principal);
+
+        var ringBuffer = this.ringBuffer;
+
+        if (ringBuffer == null) {
+            ringBuffer = start();
+        }
+
+        while (!closed) {
+            if (ringBuffer.offer(entry)) {
+                return;
+            }
+
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                break;
+            }
+
+            LockSupport.parkNanos(WAIT_TIME);
+        }
+
+        dropped.increment();
+    }
+
+    private synchronized RingBuffer<Entry> start() {
+        if (ringBuffer == null) {
+            var ringBuffer = new RingBuffer<Entry>(capacity);
+
+            writerThread = new Thread(() -> write(ringBuffer), "kilo-access-log");
+
+            writerThread.setDaemon(true);
+            writerThread.start();
+
+            this.ringBuffer = ringBuffer;
+        }
+
+        return ringBuffer;
+    }
+
+    private void write(RingBuffer<Entry> ringBuffer) {
+        var stringBuilder = new StringBuilder(256);
+
+        while (true) {
+            // Read the flag before polling so that entries submitted prior to closing are written
+            var closed = this.closed;
+
+            var n = 0;
+
+            Entry entry;
+            while (n < BATCH_SIZE && (entry = ringBuffer.poll()) != null) {
+                stringBuilder.setLength(0);
+
+                format(entry, stringBuilder);
+
+                write(stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
+
+                n++;
+            }
+
+            if (n > 0) {
+                flush();
+            } else if (closed) {
+                break;
+            } else {
+                LockSupport.parkNanos(this, IDLE_TIME);
+            }
+        }
+
+        try {
+            if (outputStream != null) {
+                outputStream.close();
+            }
+        } catch (IOException exception) {
+            logger.log(System.Logger.Level.WARNING, exception.getMessage(), exception);
+        }
+    }
+
+    private static void format(Entry entry, StringBuilder stringBuilder) {
+        stringBuilder.append(Instant.ofEpochMilli(entry.time));
+        stringBuilder.append(' ');
+        stringBuilder.append(entry.method);
+        stringBuilder.append(' ');
+        stringBuilder.append(entry.path);
+        stringBuilder.append(' ');
+        stringBuilder.append(entry.status);
+        stringBuilder.append(' ');
+
+        if (entry.bytes < 0) {
+            stringBuilder.append('-');
+        } else {
+            stringBuilder.append(entry.bytes);
+        }
+
+        stringBuilder.append(' ');
+
+        // Latency is reported in milliseconds, with microsecond precision
+        var microseconds = TimeUnit.NANOSECONDS.toMicros(entry.latency);
+
+        stringBuilder.append(microseconds / 1000);
+        stringBuilder.append('.');
+
+        var fraction = microseconds % 1000;
+
+        if (fraction < 100) {
+            stringBuilder.append('0');
+        }
+
+        if (fraction < 10) {
+            stringBuilder.append('0');
+        }
+
+        stringBuilder.append(fraction);
+        stringBuilder.append(' ');
+
+        if (entry.principal == null) {
+            stringBuilder.append('-');
+        } else {
+            stringBuilder.append(entry.principal);
+        }
+
+        stringBuilder.append('\n');
+    }
+
+    private void write(byte[] line) {
+        try {
+            if (outputStream != null && maximumFileSize > 0 && size > 0 && size + line.length > maximumFileSize) {
+                roll();
+            }
+
+            if (outputStream == null) {
+                open();
+            }
+
+            outputStream.write(line);
+
+            size += line.length;
+        } catch (IOException exception) {
+            logger.log(System.Logger.Level.WARNING, exception.getMessage(), exception);
+
+            dropped.increment();
+        }
+    }
+
+    private void flush() {
+        if (outputStream == null) {
+            return;
+        }
+
+        try {
+            outputStream.flush();
+        } catch (IOException exception) {
+            logger.log(System.Logger.Level.WARNING, exception.getMessage(), exception);
+        }
+    }
+
+    private void open() throws IOException {
+        var parent = path.toAbsolutePath().getParent();
+
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        outputStream = new BufferedOutputStream(Files.newOutputStream(path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND), 65536);
+
+        size = Files.size(path);
+    }
+
+    private void roll() throws IOException {
+        try {
+            outputStream.close();
+        } finally {
+            outputStream = null;
+        }
+
+        var fileName = path.getFileName().toString();
+
+        for (var i = maximumFileCount - 1; i > 0; i--) {
+            var source = path.resolveSibling(String.format("%s.%d", fileName, i));
+
+            if (Files.exists(source)) {
+                Files.move(source, path.resolveSibling(String.format("%s.%d", fileName, i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        if (maximumFileCount > 0) {
+            Files.move(path, path.resolveSibling(String.format("%s.1", fileName)), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Closes the log. Any requests that have already been recorded are written
+     * before this method returns. Requests recorded after the log has been
+     * closed are discarded.
+     *
+     * @throws InterruptedException
+     * If the calling thread is interrupted while waiting for pending requests
+     * to be written.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        Thread writerThread;
+        synchronized (this) {
+            closed = true;
+
+            writerThread = this.writerThread;
+        }
+
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+
+            writerThread.join();
+        }
+    }
+}
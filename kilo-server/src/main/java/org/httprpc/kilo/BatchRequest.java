@@ -0,0 +1,346 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.httprpc.kilo.io.JSONEncoder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.httprpc.kilo.util.Collections.*;
+import static org.httprpc.kilo.util.Optionals.*;
+
+class BatchRequest extends HttpServletRequestWrapper {
+    private String method;
+    private String pathInfo;
+    private Map<String, String[]> parameters;
+    private String queryString;
+    private byte[] body;
+
+    private Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    private Map<String, Object> attributes = new HashMap<>();
+
+    private String characterEncoding = null;
+
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    // Headers that describe the enclosing request's body or make its response conditional
+    private static final Set<String> excludedHeaders;
+
+    static {
+        excludedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        excludedHeaders.addAll(setOf(
+            CONTENT_TYPE,
+            "Content-Length",
+            "Content-Encoding",
+            "Transfer-Encoding",
+            "Accept-Encoding",
+            "If-Match",
+            "If-None-Match",
+            "If-Modified-Since",
+            "If-Unmodified-Since",
+            "If-Range",
+            "Range"
+        ));
+    }
+
+    private BatchRequest(HttpServletRequest request, String method, String pathInfo, Map<String, String[]> parameters, byte[] body) {
+        super(request);
+
+        this.method = method;
+        this.pathInfo = pathInfo;
+        this.parameters = parameters;
+        this.body = body;
+
+        var headerNames = request.getHeaderNames();
+
+        while (headerNames.hasMoreElements()) {
+            var name = headerNames.nextElement();
+
+            if (!excludedHeaders.contains(name)) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+        }
+
+        if (body != null) {
+            headers.put(CONTENT_TYPE, listOf(String.format(WebService.CONTENT_TYPE_FORMAT, WebService.APPLICATION_JSON, StandardCharsets.UTF_8)));
+        }
+
+        var stringBuilder = new StringBuilder();
+
+        for (var entry : parameters.entrySet()) {
+            var values = entry.getValue();
+
+            for (var i = 0; i < values.length; i++) {
+                if (stringBuilder.length() > 0) {
+                    stringBuilder.append("&");
+                }
+
+                stringBuilder.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8));
+                stringBuilder.append("=");
+                stringBuilder.append(URLEncoder.encode(values[i], StandardCharsets.UTF_8));
+            }
+        }
+
+        queryString = (stringBuilder.length() > 0) ? stringBuilder.toString() : null;
+    }
+
+    static BatchRequest of(HttpServletRequest request, Object value) throws IOException {
+        if (!(value instanceof Map<?, ?> map)) {
+            throw new IllegalArgumentException("Invalid batch request.");
+        }
+
+        if (!(map.get("method") instanceof String method)) {
+            throw new IllegalArgumentException("Method is required.");
+        }
+
+        var path = map.get("path");
+
+        if (path != null && !(path instanceof String string && string.startsWith("/"))) {
+            throw new IllegalArgumentException("Invalid path.");
+        }
+
+        var query = map.get("query");
+
+        if (query != null && !(query instanceof Map<?, ?>)) {
+            throw new IllegalArgumentException("Invalid query.");
+        }
+
+        var parameters = new LinkedHashMap<String, String[]>();
+
+        if (query != null) {
+            for (var entry : ((Map<?, ?>)query).entrySet()) {
+                var values = new ArrayList<String>();
+
+                if (entry.getValue() instanceof List<?> list) {
+                    for (var element : list) {
+                        if (element != null) {
+                            values.add(element.toString());
+                        }
+                    }
+                } else if (entry.getValue() != null) {
+                    values.add(entry.getValue().toString());
+                }
+
+                if (!values.isEmpty()) {
+                    parameters.put(entry.getKey().toString(), values.toArray(new String[0]));
+                }
+            }
+        }
+
+        byte[] body;
+        if (map.containsKey("body")) {
+            var outputStream = new ByteArrayOutputStream();
+
+            var jsonEncoder = new JSONEncoder(true);
+
+            jsonEncoder.write(map.get("body"), outputStream);
+
+            body = outputStream.toByteArray();
+        } else {
+            body = null;
+        }
+
+        return new BatchRequest(request, method.toUpperCase(), (String)path, parameters, body);
+    }
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return pathInfo;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + getServletPath() + coalesce(pathInfo, "");
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        var values = parameters.get(name);
+
+        return (values == null) ? null : values[0];
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameters;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        var values = headers.get(name);
+
+        return (values == null || values.isEmpty()) ? null : values.get(0);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return Collections.enumeration(headers.getOrDefault(name, listOf()));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        return headers.containsKey(name) ? super.getDateHeader(name) : -1;
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        return headers.containsKey(name) ? super.getIntHeader(name) : -1;
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader(CONTENT_TYPE);
+    }
+
+    @Override
+    public int getContentLength() {
+        return (body == null) ? -1 : body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return getContentLength();
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String characterEncoding) {
+        this.characterEncoding = characterEncoding;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        var inputStream = new ByteArrayInputStream((body == null) ? new byte[0] : body);
+
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return inputStream.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return inputStream.read(b, off, len);
+            }
+
+            @Override
+            public boolean isFinished() {
+                return inputStream.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(coalesce(characterEncoding, StandardCharsets.UTF_8.name()))));
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    // Sub-requests are executed synchronously on a batch thread
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+}
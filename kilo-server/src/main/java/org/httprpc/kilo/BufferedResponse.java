@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+class BufferedResponse extends HttpServletResponseWrapper {
+    private String contentEncoding;
+    private int limit;
+    private Runnable overflowHandler;
+
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+    // Destination of writes once the limit has been exceeded
+    private OutputStream overflowStream = null;
+    private CompressedResponse compressedResponse = null;
+
+    private ServletOutputStream outputStream = null;
+    private PrintWriter writer = null;
+
+    BufferedResponse(HttpServletResponse response, String contentEncoding, int limit, Runnable overflowHandler) {
+        super(response);
+
+        this.contentEncoding = contentEncoding;
+        this.limit = limit;
+        this.overflowHandler = overflowHandler;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException();
+        }
+
+        return getBufferStream();
+    }
+
+    private ServletOutputStream getBufferStream() {
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    if (overflowStream == null && buffer.size() + 1 > limit) {
+                        overflow();
+                    }
+
+                    if (overflowStream == null) {
+                        buffer.write(b);
+                    } else {
+                        overflowStream.write(b);
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    if (overflowStream == null && buffer.size() + len > limit) {
+                        overflow();
+                    }
+
+                    if (overflowStream == null) {
+                        buffer.write(b, off, len);
+                    } else {
+                        overflowStream.write(b, off, len);
+                    }
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        return outputStream;
+    }
+
+    private void overflow() throws IOException {
+        if (overflowHandler != null) {
+            overflowHandler.run();
+        }
+
+        var response = (HttpServletResponse)getResponse();
+
+        if (contentEncoding == null) {
+            overflowStream = response.getOutputStream();
+        } else {
+            compressedResponse = new CompressedResponse(response, contentEncoding, 0);
+
+            overflowStream = compressedResponse.getOutputStream();
+        }
+
+        buffer.writeTo(overflowStream);
+
+        buffer = null;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException();
+            }
+
+            writer = new PrintWriter(new OutputStreamWriter(getBufferStream(), getCharacterEncoding()));
+        }
+
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        // No-op
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        // No-op
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return overflowStream != null && super.isCommitted();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        if (overflowStream == null) {
+            buffer.reset();
+        } else {
+            super.resetBuffer();
+        }
+    }
+
+    /**
+     * Indicates that the buffer limit was exceeded, and the content has been
+     * written to the underlying response.
+     *
+     * @return
+     * {@code true} if the buffer overflowed; {@code false}, otherwise.
+     */
+    boolean isOverflowed() {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        return overflowStream != null;
+    }
+
+    byte[] getBody() {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Completes an overflowed response.
+     */
+    void finish() throws IOException {
+        if (compressedResponse != null) {
+            compressedResponse.finish();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+class CompressedResponse extends HttpServletResponseWrapper {
+    private class CompressedOutputStream extends ServletOutputStream {
+        ServletOutputStream outputStream;
+
+        byte[] buffer;
+        int count = 0;
+
+        OutputStream compressor = null;
+        boolean decided = false;
+
+        CompressedOutputStream(ServletOutputStream outputStream) {
+            this.outputStream = outputStream;
+
+            buffer = new byte[threshold];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (decided) {
+                (compressor == null ? outputStream : compressor).write(b);
+            } else {
+                if (count == buffer.length) {
+                    decide(true);
+
+                    write(b);
+                } else {
+                    buffer[count++] = (byte)b;
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (decided) {
+                (compressor == null ? outputStream : compressor).write(b, off, len);
+            } else {
+                if (len > buffer.length - count) {
+                    decide(true);
+
+                    write(b, off, len);
+                } else {
+                    System.arraycopy(b, off, buffer, count, len);
+
+                    count += len;
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!decided) {
+                return;
+            }
+
+            if (compressor != null) {
+                compressor.flush();
+            }
+
+            outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!decided) {
+                decide(false);
+            }
+
+            if (compressor != null) {
+                compressor.close();
+
+                compressor = null;
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return outputStream.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            outputStream.setWriteListener(writeListener);
+        }
+
+        void decide(boolean compress) throws IOException {
+            decided = true;
+
+            if (compress && getHeader("Content-Encoding") == null) {
+                CompressedResponse.super.setHeader("Content-Encoding", contentEncoding);
+
+                var outputStream = new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        CompressedOutputStream.this.outputStream.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        CompressedOutputStream.this.outputStream.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        CompressedOutputStream.this.outputStream.flush();
+                    }
+                };
+
+                if (contentEncoding.equals(GZIP)) {
+                    compressor = new GZIPOutputStream(outputStream, BUFFER_SIZE, true);
+                } else {
+                    compressor = new DeflaterOutputStream(outputStream, true);
+                }
+
+                compressor.write(buffer, 0, count);
+            } else {
+                if (!compress) {
+                    CompressedResponse.super.setContentLength(count);
+                }
+
+                outputStream.write(buffer, 0, count);
+            }
+
+            buffer = null;
+        }
+    }
+
+    private String contentEncoding;
+    private int threshold;
+
+    private CompressedOutputStream outputStream = null;
+    private PrintWriter writer = null;
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    CompressedResponse(HttpServletResponse response, String contentEncoding, int threshold) {
+        super(response);
+
+        this.contentEncoding = contentEncoding;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException();
+        }
+
+        if (outputStream == null) {
+            outputStream = new CompressedOutputStream(super.getOutputStream());
+        }
+
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException();
+            }
+
+            outputStream = new CompressedOutputStream(super.getOutputStream());
+
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        // No-op
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        // No-op
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        } else if (outputStream != null) {
+            outputStream.flush();
+        }
+
+        super.flushBuffer();
+    }
+
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.close();
+        } else if (outputStream != null) {
+            outputStream.close();
+        }
+    }
+
+    static String getContentEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        String contentEncoding = null;
+
+        var q = 0.0;
+
+        for (var element : acceptEncoding.split(",")) {
+            var components = element.split(";");
+
+            var name = components[0].trim().toLowerCase();
+
+            var weight = 1.0;
+
+            for (var i = 1; i < components.length; i++) {
+                var parameter = components[i].trim();
+
+                if (parameter.startsWith("q=")) {
+                    try {
+                        weight = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException exception) {
+                        weight = 0.0;
+                    }
+                }
+            }
+
+            if (name.equals("x-gzip")) {
+                name = GZIP;
+            }
+
+            if ((name.equals(GZIP) || name.equals(DEFLATE))
+                && (weight > q || (weight == q && weight > 0.0 && name.equals(GZIP)))) {
+                contentEncoding = name;
+
+                q = weight;
+            }
+        }
+
+        return contentEncoding;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ConcurrencyLimiter {
+    private int maximumLimit;
+
+    private volatile double limit;
+
+    private AtomicInteger inFlight = new AtomicInteger();
+
+    private long lastDecreaseTime = 0;
+
+    private static final double TOLERANCE = 2.0;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    ConcurrencyLimiter(int maximumLimit) {
+        this.maximumLimit = maximumLimit;
+
+        limit = maximumLimit;
+    }
+
+    int getLimit() {
+        return (int)limit;
+    }
+
+    boolean acquire(Priority.Level priority) {
+        var threshold = switch (priority) {
+            case LOW -> limit * 0.5;
+            case NORMAL -> limit * 0.9;
+            case HIGH -> limit;
+        };
+
+        var n = Math.max(1, Math.round(threshold));
+
+        while (true) {
+            var count = inFlight.get();
+
+            if (count >= n) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(EndpointMetrics metrics, long latency) {
+        var count = inFlight.getAndDecrement();
+
+        metrics.updateLatency(latency);
+
+        synchronized (this) {
+            if (metrics.shortTermLatency > metrics.longTermLatency * TOLERANCE) {
+                var now = System.nanoTime();
+
+                if (now - lastDecreaseTime > latency) {
+                    limit = Math.max(1.0, limit * BACKOFF_RATIO);
+
+                    lastDecreaseTime = now;
+                }
+            } else if (count >= limit / 2) {
+                limit = Math.min(maximumLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+}
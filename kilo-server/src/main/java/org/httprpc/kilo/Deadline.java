@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+class Deadline {
+    private long time;
+
+    static final String REQUEST_TIMEOUT = "Request-Timeout";
+
+    private Deadline(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Creates a deadline from the timeout specified by a request.
+     *
+     * @param request
+     * The request.
+     *
+     * @return
+     * The request deadline, or {@code null} if the request does not specify a
+     * valid timeout.
+     */
+    static Deadline of(HttpServletRequest request) {
+        var value = request.getHeader(REQUEST_TIMEOUT);
+
+        if (value == null) {
+            return null;
+        }
+
+        long timeout;
+        try {
+            timeout = Long.parseLong(value.trim());
+        } catch (NumberFormatException exception) {
+            return null;
+        }
+
+        if (timeout <= 0) {
+            return null;
+        }
+
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout));
+    }
+
+    /**
+     * Returns the time remaining before the deadline.
+     *
+     * @return
+     * The remaining time, in milliseconds.
+     */
+    long getRemaining() {
+        return TimeUnit.NANOSECONDS.toMillis(time - System.nanoTime());
+    }
+
+    boolean isExpired() {
+        return time - System.nanoTime() <= 0;
+    }
+
+    void check() throws SQLTimeoutException {
+        if (isExpired()) {
+            throw new SQLTimeoutException("Request deadline exceeded.");
+        }
+    }
+
+    Connection wrap(Connection connection) {
+        return (Connection)Proxy.newProxyInstance(Deadline.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, arguments) -> {
+            var result = invoke(connection, method, arguments);
+
+            if (result instanceof Statement statement) {
+                return wrap(statement, method.getReturnType());
+            } else {
+                return result;
+            }
+        });
+    }
+
+    private Object wrap(Statement statement, Class<?> type) {
+        // Query timeout requested by the caller, or 0 for none
+        var queryTimeout = new int[1];
+
+        return Proxy.newProxyInstance(Deadline.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, arguments) -> {
+            var name = method.getName();
+
+            if (name.equals("setQueryTimeout")) {
+                queryTimeout[0] = (Integer)arguments[0];
+            } else if (name.equals("getQueryTimeout")) {
+                return queryTimeout[0];
+            } else if (name.startsWith("execute")) {
+                check();
+
+                // Query timeouts are specified in seconds; 0 would disable the timeout
+                var remaining = (int)Math.min(Math.max(TimeUnit.MILLISECONDS.toSeconds(getRemaining() + 999), 1), Integer.MAX_VALUE);
+
+                statement.setQueryTimeout((queryTimeout[0] > 0) ? Math.min(queryTimeout[0], remaining) : remaining);
+            }
+
+            return invoke(statement, method, arguments);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] arguments) throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class EndpointMetrics {
+    final String method;
+    final String path;
+
+    final LongAdder requests = new LongAdder();
+    final LongAdder inFlight = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder rateLimited = new LongAdder();
+
+    final LongAdder[] responses = new LongAdder[5];
+
+    final Histogram decodeTime = new Histogram(Histogram.durationBounds);
+    final Histogram handlerTime = new Histogram(Histogram.durationBounds);
+    final Histogram encodeTime = new Histogram(Histogram.durationBounds);
+
+    // Resource usage histograms; null if resource accounting is not enabled
+    final Histogram decodeCPUTime;
+    final Histogram handlerCPUTime;
+    final Histogram encodeCPUTime;
+
+    final Histogram decodeAllocation;
+    final Histogram handlerAllocation;
+    final Histogram encodeAllocation;
+
+    volatile double shortTermLatency = 0.0;
+    volatile double longTermLatency = 0.0;
+
+    EndpointMetrics(String method, String path, boolean resourceAccounting) {
+        this.method = method;
+        this.path = path;
+
+        if (resourceAccounting) {
+            decodeCPUTime = new Histogram(Histogram.durationBounds);
+            handlerCPUTime = new Histogram(Histogram.durationBounds);
+            encodeCPUTime = new Histogram(Histogram.durationBounds);
+
+            decodeAllocation = new Histogram(Histogram.sizeBounds);
+            handlerAllocation = new Histogram(Histogram.sizeBounds);
+            encodeAllocation = new Histogram(Histogram.sizeBounds);
+        } else {
+            decodeCPUTime = null;
+            handlerCPUTime = null;
+            encodeCPUTime = null;
+
+            decodeAllocation = null;
+            handlerAllocation = null;
+            encodeAllocation = null;
+        }
+
+        for (var i = 0; i < responses.length; i++) {
+            responses[i] = new LongAdder();
+        }
+    }
+
+    void start() {
+        requests.increment();
+        inFlight.increment();
+    }
+
+    void end(int status) {
+        inFlight.decrement();
+
+        var i = status / 100 - 1;
+
+        if (i >= 0 && i < responses.length) {
+            responses[i].increment();
+        }
+    }
+
+    void updateLatency(long latency) {
+        var shortTermLatency = this.shortTermLatency;
+        var longTermLatency = this.longTermLatency;
+
+        if (longTermLatency == 0.0) {
+            shortTermLatency = latency;
+            longTermLatency = latency;
+        } else {
+            shortTermLatency += (latency - shortTermLatency) * 0.1;
+            longTermLatency += (latency - longTermLatency) * 0.01;
+        }
+
+        this.shortTermLatency = shortTermLatency;
+        this.longTermLatency = longTermLatency;
+    }
+}
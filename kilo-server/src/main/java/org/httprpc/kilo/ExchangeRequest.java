@@ -0,0 +1,683 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsExchange;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.Part;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.httprpc.kilo.util.Collections.*;
+import static org.httprpc.kilo.util.Optionals.*;
+
+class ExchangeRequest extends HttpServletRequestWrapper {
+    static class SizeLimitExceededException extends IllegalStateException {
+        SizeLimitExceededException() {
+            super("Request is too large.");
+        }
+    }
+
+    private HttpExchange exchange;
+    private ServletContext servletContext;
+    private MultipartConfigElement multipartConfig;
+    private int maxFormSize;
+
+    private String contextPath;
+    private String servletPath;
+    private String pathInfo;
+
+    private String characterEncoding;
+
+    private Map<String, String[]> parameters = null;
+    private List<StreamingPart> parts = null;
+
+    private Map<String, Object> attributes = new HashMap<>();
+
+    private ServletInputStream inputStream = null;
+    private BufferedReader reader = null;
+
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    ExchangeRequest(HttpExchange exchange, ServletContext servletContext, MultipartConfigElement multipartConfig, int maxFormSize,
+        String servletPath, String pathInfo) {
+        super(WebServer.unsupported(HttpServletRequest.class));
+
+        this.exchange = exchange;
+        this.servletContext = servletContext;
+        this.multipartConfig = multipartConfig;
+        this.maxFormSize = maxFormSize;
+        this.servletPath = servletPath;
+        this.pathInfo = pathInfo;
+
+        contextPath = servletContext.getContextPath();
+
+        characterEncoding = getCharset(getContentType());
+    }
+
+    private static String getCharset(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+
+        var parameters = contentType.split(";");
+
+        for (var i = 1; i < parameters.length; i++) {
+            var parameter = parameters[i].trim();
+
+            if (parameter.regionMatches(true, 0, "charset=", 0, 8)) {
+                var charset = parameter.substring(8);
+
+                if (charset.length() > 1 && charset.startsWith("\"") && charset.endsWith("\"")) {
+                    charset = charset.substring(1, charset.length() - 1);
+                }
+
+                return charset;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    @Override
+    public String getProtocol() {
+        return exchange.getProtocol();
+    }
+
+    @Override
+    public String getScheme() {
+        return (exchange instanceof HttpsExchange) ? "https" : "http";
+    }
+
+    @Override
+    public boolean isSecure() {
+        return exchange instanceof HttpsExchange;
+    }
+
+    @Override
+    public String getServerName() {
+        var host = getHeader("Host");
+
+        if (host == null) {
+            return exchange.getLocalAddress().getHostString();
+        }
+
+        var i = host.lastIndexOf(':');
+
+        return (i == -1 || host.endsWith("]")) ? host : host.substring(0, i);
+    }
+
+    @Override
+    public int getServerPort() {
+        var host = getHeader("Host");
+
+        if (host != null) {
+            var i = host.lastIndexOf(':');
+
+            if (i != -1 && !host.endsWith("]")) {
+                try {
+                    return Integer.parseInt(host.substring(i + 1));
+                } catch (NumberFormatException exception) {
+                    // No-op
+                }
+            }
+        }
+
+        return exchange.getLocalAddress().getPort();
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return exchange.getRemoteAddress().getAddress().getHostAddress();
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return exchange.getRemoteAddress().getHostString();
+    }
+
+    @Override
+    public int getRemotePort() {
+        return exchange.getRemoteAddress().getPort();
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return exchange.getLocalAddress().getAddress().getHostAddress();
+    }
+
+    @Override
+    public String getLocalName() {
+        return exchange.getLocalAddress().getHostString();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return exchange.getLocalAddress().getPort();
+    }
+
+    @Override
+    public String getRequestURI() {
+        return exchange.getRequestURI().getRawPath();
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        var requestURL = new StringBuffer();
+
+        requestURL.append(getScheme());
+        requestURL.append("://");
+        requestURL.append(coalesce(getHeader("Host"), exchange.getLocalAddress().getHostString() + ":" + getLocalPort()));
+        requestURL.append(getRequestURI());
+
+        return requestURL;
+    }
+
+    @Override
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    @Override
+    public String getServletPath() {
+        return servletPath;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return pathInfo;
+    }
+
+    @Override
+    public String getQueryString() {
+        return exchange.getRequestURI().getRawQuery();
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return Collections.enumeration(coalesce(exchange.getRequestHeaders().get(name), listOf()));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(exchange.getRequestHeaders().keySet());
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        var value = getHeader(name);
+
+        return (value == null) ? -1 : Integer.parseInt(value);
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        var value = getHeader(name);
+
+        if (value == null) {
+            return -1;
+        }
+
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException exception) {
+            throw new IllegalArgumentException(exception);
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader(CONTENT_TYPE);
+    }
+
+    @Override
+    public int getContentLength() {
+        var contentLength = getContentLengthLong();
+
+        return (contentLength > Integer.MAX_VALUE) ? -1 : (int)contentLength;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        var value = getHeader("Content-Length");
+
+        return (value == null) ? -1 : Long.parseLong(value);
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String characterEncoding) {
+        this.characterEncoding = characterEncoding;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return getLocales().nextElement();
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        var acceptLanguage = getHeader("Accept-Language");
+
+        var locales = new ArrayList<Locale>();
+
+        if (acceptLanguage != null) {
+            try {
+                var languageRanges = Locale.LanguageRange.parse(acceptLanguage);
+
+                for (var languageRange : languageRanges) {
+                    var range = languageRange.getRange();
+
+                    if (!range.equals("*")) {
+                        locales.add(Locale.forLanguageTag(range));
+                    }
+                }
+            } catch (IllegalArgumentException exception) {
+                // No-op
+            }
+        }
+
+        if (locales.isEmpty()) {
+            locales.add(Locale.getDefault());
+        }
+
+        return Collections.enumeration(locales);
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return exchange.getPrincipal();
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return map(exchange.getPrincipal(), Principal::getName);
+    }
+
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        if (reader != null) {
+            throw new IllegalStateException();
+        }
+
+        if (inputStream == null) {
+            var requestBody = exchange.getRequestBody();
+
+            inputStream = new ServletInputStream() {
+                boolean finished = false;
+
+                @Override
+                public int read() throws IOException {
+                    var b = requestBody.read();
+
+                    finished = (b == -1);
+
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    var n = requestBody.read(b, off, len);
+
+                    finished = (n == -1);
+
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        if (reader == null) {
+            if (inputStream != null) {
+                throw new IllegalStateException();
+            }
+
+            var charset = Charset.forName(coalesce(characterEncoding, StandardCharsets.ISO_8859_1.name()));
+
+            reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), charset));
+        }
+
+        return reader;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        var values = getParameterMap().get(name);
+
+        return (values == null) ? null : values[0];
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return getParameterMap().get(name);
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (parameters == null) {
+            var parameters = new LinkedHashMap<String, List<String>>();
+
+            parseParameters(getQueryString(), StandardCharsets.UTF_8, parameters);
+
+            if (getMethod().equalsIgnoreCase("POST")) {
+                var contentType = map(getContentType(), String::toLowerCase);
+
+                if (contentType != null) {
+                    try {
+                        if (contentType.startsWith(WebService.APPLICATION_X_WWW_FORM_URLENCODED)) {
+                            var charset = Charset.forName(coalesce(characterEncoding, StandardCharsets.ISO_8859_1.name()));
+
+                            parseParameters(new String(read(getInputStream(), maxFormSize), StandardCharsets.ISO_8859_1), charset, parameters);
+                        } else if (contentType.startsWith(WebService.MULTIPART_FORM_DATA)) {
+                            parts = new ArrayList<>();
+
+                            readParts(parameters);
+                        }
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception.getMessage(), exception);
+                    }
+                }
+            }
+
+            this.parameters = new LinkedHashMap<>();
+
+            for (var entry : parameters.entrySet()) {
+                this.parameters.put(entry.getKey(), entry.getValue().toArray(new String[0]));
+            }
+        }
+
+        return parameters;
+    }
+
+    private static void parseParameters(String value, Charset charset, Map<String, List<String>> parameters) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        var pairs = value.split("&");
+
+        for (var i = 0; i < pairs.length; i++) {
+            var pair = pairs[i];
+
+            if (pair.isEmpty()) {
+                continue;
+            }
+
+            var j = pair.indexOf('=');
+
+            var name = URLDecoder.decode((j == -1) ? pair : pair.substring(0, j), charset);
+            var parameter = (j == -1) ? "" : URLDecoder.decode(pair.substring(j + 1), charset);
+
+            parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(parameter);
+        }
+    }
+
+    private void readParts(Map<String, List<String>> parameters) throws IOException {
+        var charset = Charset.forName(coalesce(characterEncoding, StandardCharsets.UTF_8.name()));
+
+        var multipartReader = new MultipartReader(getInputStream(), getContentType());
+
+        var formSize = 0L;
+        var requestSize = 0L;
+
+        while (multipartReader.hasNext()) {
+            var part = multipartReader.next();
+
+            var submittedFileName = part.getSubmittedFileName();
+
+            var limit = Math.min(getLimit(multipartConfig.getMaxFileSize(), 0), getLimit(multipartConfig.getMaxRequestSize(), requestSize));
+
+            var headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+
+            for (var name : part.getHeaderNames()) {
+                headers.put(name, new ArrayList<>(part.getHeaders(name)));
+            }
+
+            // The part is read to the end unless a limit is exceeded, in which case the remaining content is not drained
+            var inputStream = part.getInputStream();
+
+            StreamingPart streamingPart;
+            if (submittedFileName == null) {
+                // Field values are held in memory, so they count toward the form size limit
+                var content = read(inputStream, Math.min(limit, maxFormSize - formSize));
+
+                parameters.computeIfAbsent(part.getName(), key -> new ArrayList<>()).add(new String(content, charset));
+
+                formSize += content.length;
+
+                streamingPart = new StreamingPart(part.getName(), null, part.getContentType(), headers, new ByteArrayInputStream(content), content.length);
+            } else {
+                streamingPart = spool(part, headers, inputStream, limit);
+            }
+
+            parts.add(streamingPart);
+
+            requestSize += streamingPart.getSize();
+        }
+    }
+
+    private static long getLimit(long maxSize, long size) {
+        return (maxSize < 0) ? Long.MAX_VALUE : maxSize - size;
+    }
+
+    private static byte[] read(InputStream inputStream, long limit) throws IOException {
+        var content = inputStream.readNBytes((int)Math.min(limit + 1, Integer.MAX_VALUE));
+
+        if (content.length > limit) {
+            throw new SizeLimitExceededException();
+        }
+
+        return content;
+    }
+
+    private StreamingPart spool(Part part, Map<String, List<String>> headers, InputStream inputStream, long limit) throws IOException {
+        var threshold = Math.min(multipartConfig.getFileSizeThreshold(), limit);
+
+        var content = inputStream.readNBytes((int)Math.min(threshold + 1, Integer.MAX_VALUE));
+
+        if (content.length <= threshold) {
+            return new StreamingPart(part.getName(), part.getSubmittedFileName(), part.getContentType(), headers, new ByteArrayInputStream(content), content.length);
+        }
+
+        if (content.length > limit) {
+            throw new SizeLimitExceededException();
+        }
+
+        var location = multipartConfig.getLocation();
+
+        var file = Files.createTempFile(Path.of(System.getProperty("java.io.tmpdir")).resolve(location), "kilo", null);
+
+        try (var outputStream = Files.newOutputStream(file)) {
+            outputStream.write(content);
+
+            var size = (long)content.length;
+
+            var buffer = new byte[8192];
+
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                size += n;
+
+                if (size > limit) {
+                    throw new SizeLimitExceededException();
+                }
+
+                outputStream.write(buffer, 0, n);
+            }
+
+            return new StreamingPart(part.getName(), part.getSubmittedFileName(), part.getContentType(), headers, file, size);
+        } catch (IOException | RuntimeException exception) {
+            Files.deleteIfExists(file);
+
+            throw exception;
+        }
+    }
+
+    void deleteParts() {
+        if (parts == null) {
+            return;
+        }
+
+        for (var part : parts) {
+            try {
+                part.delete();
+            } catch (IOException exception) {
+                // No-op
+            }
+        }
+    }
+
+    @Override
+    public Collection<Part> getParts() {
+        getParameterMap();
+
+        return (parts == null) ? listOf() : Collections.unmodifiableList(parts);
+    }
+
+    @Override
+    public Part getPart(String name) {
+        for (var part : getParts()) {
+            if (part.getName().equals(name)) {
+                return part;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return servletContext;
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    // Requests are executed synchronously on a worker thread
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import com.sun.net.httpserver.HttpExchange;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.httprpc.kilo.util.Collections.*;
+import static org.httprpc.kilo.util.Optionals.*;
+
+class ExchangeResponse extends HttpServletResponseWrapper {
+    private class ExchangeOutputStream extends ServletOutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (head || suspended) {
+                return;
+            }
+
+            if (body == null && buffer.size() + len > bufferSize) {
+                commit(false);
+            }
+
+            if (body == null) {
+                buffer.write(b, off, len);
+            } else {
+                body.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBody();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private HttpExchange exchange;
+    private boolean head;
+
+    private boolean suspended = false;
+
+    private int status = HttpServletResponse.SC_OK;
+    private String contentType = null;
+    private String characterEncoding = null;
+    private long contentLength = -1;
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(DEFAULT_BUFFER_SIZE);
+
+    private OutputStream body = null;
+
+    private ServletOutputStream outputStream = null;
+    private PrintWriter writer = null;
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    ExchangeResponse(HttpExchange exchange) {
+        super(WebServer.unsupported(HttpServletResponse.class));
+
+        this.exchange = exchange;
+
+        head = exchange.getRequestMethod().equalsIgnoreCase("HEAD");
+    }
+
+    private void commit(boolean complete) throws IOException {
+        long length;
+        if (head || status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            length = -1;
+        } else if (complete) {
+            length = (buffer.size() == 0) ? -1 : buffer.size();
+        } else {
+            // Use chunked encoding when the final length is not known
+            length = Math.max(contentLength, 0);
+        }
+
+        exchange.sendResponseHeaders(status, length);
+
+        body = exchange.getResponseBody();
+
+        if (length != -1) {
+            buffer.writeTo(body);
+        }
+
+        buffer = null;
+    }
+
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        if (body == null) {
+            commit(true);
+        }
+
+        body.close();
+    }
+
+    @Override
+    public void setStatus(int status) {
+        if (isCommitted()) {
+            return;
+        }
+
+        this.status = status;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+        sendError(status, null);
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+        resetBuffer();
+
+        this.status = status;
+
+        if (message != null) {
+            setContentType(String.format(WebService.CONTENT_TYPE_FORMAT, WebService.TEXT_PLAIN, StandardCharsets.UTF_8));
+
+            buffer.writeBytes(message.getBytes(StandardCharsets.UTF_8));
+        }
+
+        commit(true);
+
+        suspended = true;
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        resetBuffer();
+
+        status = HttpServletResponse.SC_FOUND;
+
+        setHeader("Location", location);
+
+        commit(true);
+
+        suspended = true;
+    }
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+
+    @Override
+    public void setContentType(String contentType) {
+        if (isCommitted()) {
+            return;
+        }
+
+        this.contentType = contentType;
+
+        if (contentType == null) {
+            exchange.getResponseHeaders().remove(CONTENT_TYPE);
+        } else {
+            exchange.getResponseHeaders().set(CONTENT_TYPE, contentType);
+
+            var i = contentType.toLowerCase().indexOf("charset=");
+
+            if (i != -1) {
+                characterEncoding = contentType.substring(i + 8).trim();
+            }
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public void setCharacterEncoding(String characterEncoding) {
+        this.characterEncoding = characterEncoding;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return coalesce(characterEncoding, StandardCharsets.ISO_8859_1.name());
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        contentLength = length;
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return exchange.getResponseHeaders().containsKey(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return exchange.getResponseHeaders().getFirst(name);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        return coalesce(exchange.getResponseHeaders().get(name), listOf());
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return exchange.getResponseHeaders().keySet();
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (isCommitted()) {
+            return;
+        }
+
+        if (name.equalsIgnoreCase(CONTENT_TYPE)) {
+            setContentType(value);
+        } else if (value == null) {
+            exchange.getResponseHeaders().remove(name);
+        } else {
+            exchange.getResponseHeaders().set(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (isCommitted()) {
+            return;
+        }
+
+        exchange.getResponseHeaders().add(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatDate(date));
+    }
+
+    private static String formatDate(long date) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(date).atOffset(ZoneOffset.UTC));
+    }
+
+    // The JDK HTTP server does not support trailers
+    @Override
+    public void setTrailerFields(Supplier<Map<String, String>> supplier) {
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new ExchangeOutputStream();
+        }
+
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+        }
+
+        return writer;
+    }
+
+    @Override
+    public void setBufferSize(int bufferSize) {
+        if (isCommitted()) {
+            throw new IllegalStateException();
+        }
+
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        flushBody();
+    }
+
+    private void flushBody() throws IOException {
+        if (body == null) {
+            commit(false);
+        }
+
+        body.flush();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (isCommitted()) {
+            throw new IllegalStateException();
+        }
+
+        if (writer != null) {
+            writer.flush();
+        }
+
+        buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+
+        status = HttpServletResponse.SC_OK;
+        contentType = null;
+        characterEncoding = null;
+        contentLength = -1;
+
+        exchange.getResponseHeaders().clear();
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return body != null;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.httprpc.kilo.util.Collections.*;
+
+class HandlerIndex {
+    private static final String PREFIX = "META-INF/kilo/";
+    private static final String SUFFIX = ".handlers";
+
+    private static final String EXTENDS = "extends ";
+
+    private static final Map<String, Class<?>> primitiveTypes = mapOf(
+        entry("boolean", Boolean.TYPE),
+        entry("byte", Byte.TYPE),
+        entry("char", Character.TYPE),
+        entry("short", Short.TYPE),
+        entry("int", Integer.TYPE),
+        entry("long", Long.TYPE),
+        entry("float", Float.TYPE),
+        entry("double", Double.TYPE)
+    );
+
+    static String getResourceName(String typeName) {
+        return PREFIX + typeName + SUFFIX;
+    }
+
+    // For example, "extends org.httprpc.kilo.test.AbstractDatabaseService"
+    static String formatSuperclass(String typeName) {
+        return EXTENDS + typeName;
+    }
+
+    // For example, "getFilm(java.lang.Integer)"
+    static String format(String methodName, String... parameterTypeNames) {
+        return String.format("%s(%s)", methodName, String.join(",", parameterTypeNames));
+    }
+
+    /**
+     * Loads the handler methods of a service type.
+     *
+     * @param type
+     * The service type.
+     *
+     * @return
+     * The handler methods, or {@code null} if the type has not been indexed or
+     * the index does not match the type or its superclasses.
+     */
+    static Method[] load(Class<?> type) {
+        var classLoader = type.getClassLoader();
+
+        if (classLoader == null) {
+            return null;
+        }
+
+        var inputStream = classLoader.getResourceAsStream(getResourceName(type.getName()));
+
+        if (inputStream == null) {
+            return null;
+        }
+
+        var methods = new ArrayList<Method>();
+
+        // The superclasses are listed first, so a superclass that has been replaced is detected before any handlers are resolved
+        var superclass = type.getSuperclass();
+
+        try (var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                if (line.startsWith(EXTENDS)) {
+                    if (superclass == null || !superclass.getName().equals(line.substring(EXTENDS.length()))) {
+                        return null;
+                    }
+
+                    superclass = superclass.getSuperclass();
+
+                    continue;
+                }
+
+                var i = line.indexOf('(');
+
+                if (i == -1 || !line.endsWith(")")) {
+                    return null;
+                }
+
+                var parameterTypeNames = line.substring(i + 1, line.length() - 1);
+
+                var parameterTypes = new ArrayList<Class<?>>();
+
+                if (!parameterTypeNames.isEmpty()) {
+                    var names = parameterTypeNames.split(",");
+
+                    for (var j = 0; j < names.length; j++) {
+                        parameterTypes.add(getType(names[j], classLoader));
+                    }
+                }
+
+                methods.add(type.getMethod(line.substring(0, i), parameterTypes.toArray(new Class<?>[0])));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (ClassNotFoundException | NoSuchMethodException exception) {
+            // The index is out of date
+            return null;
+        }
+
+        if (superclass != WebService.class) {
+            return null;
+        }
+
+        return methods.toArray(new Method[0]);
+    }
+
+    private static Class<?> getType(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        var type = primitiveTypes.get(name);
+
+        if (type != null) {
+            return type;
+        }
+
+        return Class.forName(name, false, classLoader);
+    }
+}
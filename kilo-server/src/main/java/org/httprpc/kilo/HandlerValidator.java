@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Shared by WebService and WebServiceProcessor so that handlers are validated consistently at compile time and at startup
+class HandlerValidator {
+    // Implemented by both reflective methods and annotation processing elements
+    interface AnnotatedHandler {
+        <A extends Annotation> A getAnnotation(Class<A> annotationType);
+    }
+
+    private Map<String, RateLimit> rateLimits = new HashMap<>();
+
+    /**
+     * Validates a handler.
+     *
+     * @param requestMethod
+     * The handler's request method, in upper case.
+     *
+     * @param handler
+     * The handler to validate.
+     *
+     * @return
+     * A message describing the error, or {@code null} if the handler is valid.
+     */
+    String validate(String requestMethod, AnnotatedHandler handler) {
+        var resourcePath = handler.getAnnotation(ResourcePath.class);
+
+        var path = "";
+
+        if (resourcePath != null) {
+            var components = resourcePath.value().split("/");
+
+            for (var i = 0; i < components.length; i++) {
+                if (components[i].isEmpty()) {
+                    return "Invalid resource path.";
+                }
+            }
+
+            path = String.join("/", components);
+        }
+
+        var get = requestMethod.equals("GET");
+
+        if (handler.getAnnotation(ReadOnly.class) != null && !get) {
+            return "Read-only methods must use GET.";
+        }
+
+        var cacheable = handler.getAnnotation(Cacheable.class);
+
+        if (cacheable != null) {
+            if (!get) {
+                return "Cacheable methods must use GET.";
+            }
+
+            if (cacheable.ttl() <= 0 || cacheable.maxEntries() <= 0 || cacheable.timeout() <= 0) {
+                return "Invalid cache policy.";
+            }
+        }
+
+        if (handler.getAnnotation(Conditional.class) != null && !get) {
+            return "Conditional methods must use GET.";
+        }
+
+        var coalesced = handler.getAnnotation(Coalesced.class);
+
+        if (coalesced != null) {
+            if (!get) {
+                return "Coalesced methods must use GET.";
+            }
+
+            if (cacheable != null) {
+                return "Cacheable methods are already coalesced.";
+            }
+
+            if (coalesced.timeout() <= 0) {
+                return "Invalid coalescing timeout.";
+            }
+        }
+
+        var rateLimit = handler.getAnnotation(RateLimit.class);
+
+        if (rateLimit != null && (rateLimit.limit() <= 0 || rateLimit.period() <= 0)) {
+            return "Invalid rate limit.";
+        }
+
+        // Handlers that share a method and resource share a rate limiter
+        var key = String.format("%s %s", requestMethod, path);
+
+        if (rateLimits.containsKey(key)) {
+            if (!Objects.equals(rateLimits.get(key), rateLimit)) {
+                return "Conflicting rate limits.";
+            }
+        } else {
+            rateLimits.put(key, rateLimit);
+        }
+
+        return null;
+    }
+}
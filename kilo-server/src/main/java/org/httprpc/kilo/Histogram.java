@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.util.concurrent.atomic.LongAdder;
+
+class Histogram {
+    private long[] bounds;
+
+    private LongAdder[] buckets;
+    private LongAdder sum = new LongAdder();
+
+    // Upper bounds, in nanoseconds
+    static final long[] durationBounds = {
+        100_000L,
+        250_000L,
+        500_000L,
+        1_000_000L,
+        2_500_000L,
+        5_000_000L,
+        10_000_000L,
+        25_000_000L,
+        50_000_000L,
+        100_000_000L,
+        250_000_000L,
+        500_000_000L,
+        1_000_000_000L,
+        2_500_000_000L,
+        5_000_000_000L,
+        10_000_000_000L
+    };
+
+    // Upper bounds, in bytes
+    static final long[] sizeBounds = {
+        1L << 10,
+        1L << 12,
+        1L << 14,
+        1L << 16,
+        1L << 18,
+        1L << 20,
+        1L << 22,
+        1L << 24,
+        1L << 26,
+        1L << 28,
+        1L << 30
+    };
+
+    Histogram(long[] bounds) {
+        this.bounds = bounds;
+
+        buckets = new LongAdder[bounds.length + 1];
+
+        for (var i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    long[] getBounds() {
+        return bounds;
+    }
+
+    void record(long value) {
+        var i = 0;
+
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+
+        buckets[i].increment();
+
+        sum.add(value);
+    }
+
+    long[] getCounts() {
+        var counts = new long[buckets.length];
+
+        var count = 0L;
+
+        for (var i = 0; i < buckets.length; i++) {
+            count += buckets[i].sum();
+
+            counts[i] = count;
+        }
+
+        return counts;
+    }
+
+    long getSum() {
+        return sum.sum();
+    }
+}
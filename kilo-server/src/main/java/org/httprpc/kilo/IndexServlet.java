@@ -23,7 +23,10 @@ import org.httprpc.kilo.io.TemplateEncoder;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.httprpc.kilo.util.Collections.*;
 
@@ -32,33 +35,38 @@ import static org.httprpc.kilo.util.Collections.*;
  */
 @WebServlet(urlPatterns = {""}, loadOnStartup = Integer.MAX_VALUE)
 public class IndexServlet extends HttpServlet {
+    private final Map<List<?>, RenderedDocument> documents = new ConcurrentHashMap<>();
+
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
         var serviceDescriptors = WebService.getServiceDescriptors();
 
         var accept = request.getHeader("Accept");
 
+        RenderedDocument document;
         if (accept != null && accept.equalsIgnoreCase(WebService.APPLICATION_JSON)) {
-            response.setContentType(String.format(WebService.CONTENT_TYPE_FORMAT, WebService.APPLICATION_JSON, StandardCharsets.UTF_8));
-
-            var jsonEncoder = new JSONEncoder();
+            document = RenderedDocument.get(documents, listOf(WebService.APPLICATION_JSON, serviceDescriptors), String.format(WebService.CONTENT_TYPE_FORMAT, WebService.APPLICATION_JSON, StandardCharsets.UTF_8), outputStream -> {
+                var jsonEncoder = new JSONEncoder();
 
-            jsonEncoder.write(serviceDescriptors, response.getOutputStream());
+                jsonEncoder.write(serviceDescriptors, outputStream);
+            });
         } else {
-            response.setContentType(String.format(WebService.CONTENT_TYPE_FORMAT, WebService.TEXT_HTML, StandardCharsets.UTF_8));
-
-            var templateEncoder = new TemplateEncoder(IndexServlet.class, "index.html");
-
             var locale = request.getLocale();
 
-            templateEncoder.setResourceBundle(ResourceBundle.getBundle(IndexServlet.class.getName(), locale));
-            templateEncoder.setLocale(locale);
+            document = RenderedDocument.get(documents, listOf(WebService.TEXT_HTML, locale, serviceDescriptors), String.format(WebService.CONTENT_TYPE_FORMAT, WebService.TEXT_HTML, StandardCharsets.UTF_8), outputStream -> {
+                var templateEncoder = new TemplateEncoder(IndexServlet.class, "index.html");
+
+                templateEncoder.setResourceBundle(ResourceBundle.getBundle(IndexServlet.class.getName(), locale));
+                templateEncoder.setLocale(locale);
 
-            templateEncoder.write(mapOf(
-                entry("language", locale.getLanguage()),
-                entry("contextPath", request.getContextPath()),
-                entry("services", serviceDescriptors)
-            ), response.getOutputStream());
+                templateEncoder.write(mapOf(
+                    entry("language", locale.getLanguage()),
+                    entry("contextPath", request.getContextPath()),
+                    entry("services", serviceDescriptors)
+                ), outputStream);
+            });
         }
+
+        document.write(request, response);
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongFunction;
+
+/**
+ * Reports request metrics for all active services in Prometheus text
+ * exposition format.
+ */
+public class MetricsServlet extends HttpServlet {
+    private static final String CONTENT_TYPE = "text/plain;version=0.0.4;charset=" + StandardCharsets.UTF_8;
+
+    private static final String REQUESTS = "kilo_requests_total";
+    private static final String RESPONSES = "kilo_responses_total";
+    private static final String REJECTED = "kilo_requests_rejected_total";
+    private static final String RATE_LIMITED = "kilo_requests_rate_limited_total";
+    private static final String IN_FLIGHT = "kilo_requests_in_flight";
+    private static final String DURATION = "kilo_request_duration_seconds";
+    private static final String CPU_TIME = "kilo_request_cpu_seconds";
+    private static final String ALLOCATION = "kilo_request_allocated_bytes";
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        var endpointMetrics = WebService.getEndpointMetrics();
+
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-cache");
+
+        var writer = response.getWriter();
+
+        writer.printf("# HELP %s Total number of requests.\n", REQUESTS);
+        writer.printf("# TYPE %s counter\n", REQUESTS);
+
+        for (var metrics : endpointMetrics) {
+            writer.printf("%s{%s} %d\n", REQUESTS, getLabels(metrics), metrics.requests.sum());
+        }
+
+        writer.printf("# HELP %s Total number of responses by status class.\n", RESPONSES);
+        writer.printf("# TYPE %s counter\n", RESPONSES);
+
+        for (var metrics : endpointMetrics) {
+            var labels = getLabels(metrics);
+
+            for (var i = 0; i < metrics.responses.length; i++) {
+                writer.printf("%s{%s,status=\"%dxx\"} %d\n", RESPONSES, labels, i + 1, metrics.responses[i].sum());
+            }
+        }
+
+        writer.printf("# HELP %s Total number of requests rejected due to concurrency limits.\n", REJECTED);
+        writer.printf("# TYPE %s counter\n", REJECTED);
+
+        for (var metrics : endpointMetrics) {
+            writer.printf("%s{%s} %d\n", REJECTED, getLabels(metrics), metrics.rejected.sum());
+        }
+
+        writer.printf("# HELP %s Total number of requests rejected due to rate limits.\n", RATE_LIMITED);
+        writer.printf("# TYPE %s counter\n", RATE_LIMITED);
+
+        for (var metrics : endpointMetrics) {
+            writer.printf("%s{%s} %d\n", RATE_LIMITED, getLabels(metrics), metrics.rateLimited.sum());
+        }
+
+        writer.printf("# HELP %s Number of requests currently being processed.\n", IN_FLIGHT);
+        writer.printf("# TYPE %s gauge\n", IN_FLIGHT);
+
+        for (var metrics : endpointMetrics) {
+            writer.printf("%s{%s} %d\n", IN_FLIGHT, getLabels(metrics), metrics.inFlight.sum());
+        }
+
+        writer.printf("# HELP %s Request processing time by phase.\n", DURATION);
+        writer.printf("# TYPE %s histogram\n", DURATION);
+
+        for (var metrics : endpointMetrics) {
+            var labels = getLabels(metrics);
+
+            writeHistogram(writer, DURATION, labels, "decode", metrics.decodeTime, MetricsServlet::getSeconds);
+            writeHistogram(writer, DURATION, labels, "handler", metrics.handlerTime, MetricsServlet::getSeconds);
+            writeHistogram(writer, DURATION, labels, "encode", metrics.encodeTime, MetricsServlet::getSeconds);
+        }
+
+        writer.printf("# HELP %s CPU time consumed by the request thread by phase.\n", CPU_TIME);
+        writer.printf("# TYPE %s histogram\n", CPU_TIME);
+
+        for (var metrics : endpointMetrics) {
+            if (metrics.decodeCPUTime == null) {
+                continue;
+            }
+
+            var labels = getLabels(metrics);
+
+            writeHistogram(writer, CPU_TIME, labels, "decode", metrics.decodeCPUTime, MetricsServlet::getSeconds);
+            writeHistogram(writer, CPU_TIME, labels, "handler", metrics.handlerCPUTime, MetricsServlet::getSeconds);
+            writeHistogram(writer, CPU_TIME, labels, "encode", metrics.encodeCPUTime, MetricsServlet::getSeconds);
+        }
+
+        writer.printf("# HELP %s Memory allocated by the request thread by phase.\n", ALLOCATION);
+        writer.printf("# TYPE %s histogram\n", ALLOCATION);
+
+        for (var metrics : endpointMetrics) {
+            if (metrics.decodeAllocation == null) {
+                continue;
+            }
+
+            var labels = getLabels(metrics);
+
+            writeHistogram(writer, ALLOCATION, labels, "decode", metrics.decodeAllocation, String::valueOf);
+            writeHistogram(writer, ALLOCATION, labels, "handler", metrics.handlerAllocation, String::valueOf);
+            writeHistogram(writer, ALLOCATION, labels, "encode", metrics.encodeAllocation, String::valueOf);
+        }
+
+        writer.flush();
+    }
+
+    private static void writeHistogram(PrintWriter writer, String name, String labels, String phase, Histogram histogram, LongFunction<String> format) {
+        var bounds = histogram.getBounds();
+        var counts = histogram.getCounts();
+
+        for (var i = 0; i < bounds.length; i++) {
+            writer.printf("%s_bucket{%s,phase=\"%s\",le=\"%s\"} %d\n", name, labels, phase, format.apply(bounds[i]), counts[i]);
+        }
+
+        var count = counts[counts.length - 1];
+
+        writer.printf("%s_bucket{%s,phase=\"%s\",le=\"+Inf\"} %d\n", name, labels, phase, count);
+        writer.printf("%s_sum{%s,phase=\"%s\"} %s\n", name, labels, phase, format.apply(histogram.getSum()));
+        writer.printf("%s_count{%s,phase=\"%s\"} %d\n", name, labels, phase, count);
+    }
+
+    private static String getLabels(EndpointMetrics metrics) {
+        return String.format("method=\"%s\",path=\"%s\"", metrics.method, escape(metrics.path));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String getSeconds(long nanoseconds) {
+        return BigDecimal.valueOf(nanoseconds, 9).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.Part;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+class MultipartReader implements Iterator<Part> {
+    private class PartInputStream extends InputStream {
+        boolean closed = false;
+
+        @Override
+        public int read() throws IOException {
+            var b = new byte[1];
+
+            return (read(b, 0, 1) == EOF) ? EOF : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                return EOF;
+            }
+
+            if (len == 0) {
+                return 0;
+            }
+
+            var n = readPartData(b, off, len);
+
+            if (n == EOF) {
+                closed = true;
+            }
+
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            drain(this);
+        }
+    }
+
+    private InputStream inputStream;
+    private byte[] delimiter;
+
+    private byte[] buffer;
+    private int position = 0;
+    private int limit = 0;
+
+    private boolean eof = false;
+    private boolean done = false;
+
+    private PartInputStream partInputStream;
+    private StreamingPart next = null;
+
+    private static final int EOF = -1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int MAXIMUM_HEADER_LENGTH = 8192;
+
+    private static final String CONTENT_DISPOSITION = "content-disposition";
+    private static final String CONTENT_TYPE = "content-type";
+
+    private static final String ATTRIBUTE_NAME = MultipartReader.class.getName();
+
+    static MultipartReader get(HttpServletRequest request) {
+        return (MultipartReader)request.getAttribute(ATTRIBUTE_NAME);
+    }
+
+    static MultipartReader open(HttpServletRequest request) throws IOException {
+        var multipartReader = new MultipartReader(request.getInputStream(), request.getContentType());
+
+        request.setAttribute(ATTRIBUTE_NAME, multipartReader);
+
+        return multipartReader;
+    }
+
+    MultipartReader(InputStream inputStream, String contentType) {
+        var boundary = getBoundary(contentType);
+
+        if (boundary == null) {
+            throw new IllegalArgumentException("Missing multipart boundary.");
+        }
+
+        this.inputStream = inputStream;
+
+        delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+
+        buffer = new byte[BUFFER_SIZE + delimiter.length];
+
+        // The first delimiter is not preceded by a line break
+        buffer[limit++] = '\r';
+        buffer[limit++] = '\n';
+
+        // Treat the preamble as a part that is discarded
+        partInputStream = new PartInputStream();
+    }
+
+    private static String getBoundary(String contentType) {
+        var parameters = contentType.split(";");
+
+        for (var i = 1; i < parameters.length; i++) {
+            var parameter = parameters[i].trim();
+
+            if (parameter.regionMatches(true, 0, "boundary=", 0, 9)) {
+                var boundary = parameter.substring(9);
+
+                if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                    boundary = boundary.substring(1, boundary.length() - 1);
+                }
+
+                return boundary.isEmpty() ? null : boundary;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception.getMessage(), exception);
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public Part next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        var part = next;
+
+        next = null;
+
+        return part;
+    }
+
+    /**
+     * Returns the next part without consuming it.
+     *
+     * @return
+     * The next part, or {@code null} if there are no more parts.
+     */
+    StreamingPart peek() {
+        return hasNext() ? next : null;
+    }
+
+    private StreamingPart readNext() throws IOException {
+        while (!done) {
+            drain(partInputStream);
+
+            if (fill(2) < 2) {
+                throw new IOException("Unexpected end of stream.");
+            }
+
+            if (buffer[position] == '-' && buffer[position + 1] == '-') {
+                done = true;
+
+                break;
+            }
+
+            // Skip transport padding
+            var line = readLine();
+
+            if (!line.isBlank()) {
+                throw new IOException("Invalid delimiter.");
+            }
+
+            var headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+
+            while (!(line = readLine()).isEmpty()) {
+                var i = line.indexOf(':');
+
+                if (i == -1) {
+                    throw new IOException("Invalid header.");
+                }
+
+                var name = line.substring(0, i).trim();
+                var value = line.substring(i + 1).trim();
+
+                headers.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+            }
+
+            var disposition = getParameters(getFirst(headers, CONTENT_DISPOSITION));
+
+            partInputStream = new PartInputStream();
+
+            var name = disposition.get("name");
+            var submittedFileName = disposition.get("filename");
+
+            if (name == null || (submittedFileName != null && submittedFileName.isEmpty())) {
+                continue;
+            }
+
+            return new StreamingPart(name, submittedFileName, getFirst(headers, CONTENT_TYPE), headers, partInputStream, -1);
+        }
+
+        return null;
+    }
+
+    private static String getFirst(Map<String, List<String>> headers, String name) {
+        var values = headers.get(name);
+
+        return (values == null) ? null : values.get(0);
+    }
+
+    private static Map<String, String> getParameters(String value) {
+        var parameters = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+
+        if (value == null) {
+            return parameters;
+        }
+
+        var n = value.length();
+
+        var i = value.indexOf(';');
+
+        while (i != -1 && i < n) {
+            var j = value.indexOf('=', i + 1);
+
+            if (j == -1) {
+                break;
+            }
+
+            var name = value.substring(i + 1, j).trim();
+
+            var stringBuilder = new StringBuilder();
+
+            var k = j + 1;
+
+            while (k < n && value.charAt(k) == ' ') {
+                k++;
+            }
+
+            if (k < n && value.charAt(k) == '"') {
+                k++;
+
+                while (k < n) {
+                    var c = value.charAt(k++);
+
+                    if (c == '"') {
+                        break;
+                    } else if (c == '\\' && k < n) {
+                        c = value.charAt(k++);
+                    }
+
+                    stringBuilder.append(c);
+                }
+
+                i = value.indexOf(';', k);
+            } else {
+                i = value.indexOf(';', k);
+
+                stringBuilder.append(value, k, (i == -1) ? n : i);
+            }
+
+            parameters.put(name, stringBuilder.toString().trim());
+        }
+
+        return parameters;
+    }
+
+    private String readLine() throws IOException {
+        var outputStream = new ByteArrayOutputStream(256);
+
+        while (true) {
+            if (fill(1) == 0) {
+                throw new IOException("Unexpected end of stream.");
+            }
+
+            var b = buffer[position++];
+
+            if (b == '\n') {
+                break;
+            }
+
+            if (b != '\r') {
+                outputStream.write(b);
+            }
+
+            if (outputStream.size() > MAXIMUM_HEADER_LENGTH) {
+                throw new IOException("Header is too long.");
+            }
+        }
+
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private int readPartData(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            var available = fill(delimiter.length);
+
+            var i = indexOfDelimiter();
+
+            if (i == position) {
+                position += delimiter.length;
+
+                return EOF;
+            }
+
+            int n;
+            if (i != -1) {
+                n = i - position;
+            } else if (eof) {
+                throw new IOException("Unexpected end of stream.");
+            } else {
+                // Retain any bytes that could be the start of a delimiter
+                n = available - (delimiter.length - 1);
+            }
+
+            if (n > 0) {
+                n = Math.min(n, len);
+
+                System.arraycopy(buffer, position, b, off, n);
+
+                position += n;
+
+                return n;
+            }
+
+            compact();
+
+            var count = inputStream.read(buffer, limit, buffer.length - limit);
+
+            if (count == EOF) {
+                eof = true;
+            } else {
+                limit += count;
+            }
+        }
+    }
+
+    private int indexOfDelimiter() {
+        var n = limit - delimiter.length;
+
+        for (var i = position; i <= n; i++) {
+            var j = 0;
+
+            while (j < delimiter.length && buffer[i + j] == delimiter[j]) {
+                j++;
+            }
+
+            if (j == delimiter.length) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int fill(int count) throws IOException {
+        if (limit - position < count) {
+            compact();
+
+            while (!eof && limit - position < count) {
+                var n = inputStream.read(buffer, limit, buffer.length - limit);
+
+                if (n == EOF) {
+                    eof = true;
+                } else {
+                    limit += n;
+                }
+            }
+        }
+
+        return limit - position;
+    }
+
+    private void compact() {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+
+            limit -= position;
+            position = 0;
+        }
+    }
+
+    private void drain(PartInputStream partInputStream) throws IOException {
+        if (partInputStream != this.partInputStream) {
+            return;
+        }
+
+        var b = new byte[BUFFER_SIZE];
+
+        while (partInputStream.read(b, 0, b.length) != EOF) {
+            continue;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Associates a priority class with a service method. When concurrency
+ * limiting is enabled, lower-priority requests are rejected before
+ * higher-priority requests as the service approaches its limit.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Priority {
+    /**
+     * Priority classes.
+     */
+    enum Level {
+        /**
+         * Low priority; for example, bulk operations.
+         */
+        LOW,
+
+        /**
+         * Normal priority.
+         */
+        NORMAL,
+
+        /**
+         * High priority.
+         */
+        HIGH
+    }
+
+    /**
+     * The priority class.
+     */
+    Level value();
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+class RateLimiter {
+    // Token bucket implemented as a generic cell rate algorithm; each entry stores the theoretical arrival time
+    private Map<String, Long> entries = new ConcurrentHashMap<>();
+
+    private int limit;
+    private long period;
+    private long interval;
+    private long tolerance;
+
+    private AtomicLong lastEvictionTime = new AtomicLong(System.nanoTime());
+
+    static final int REMAINING = 0;
+    static final int RESET = 1;
+
+    RateLimiter(int limit, long period) {
+        if (limit <= 0 || period <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.limit = limit;
+
+        this.period = period * 1_000_000;
+
+        interval = this.period / limit;
+        tolerance = this.period - interval;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    boolean acquire(String key, long[] state) {
+        var now = System.nanoTime();
+
+        evict(now);
+
+        var acquired = new boolean[1];
+
+        // Updates are applied atomically per key, so they cannot be lost to a concurrent eviction
+        entries.compute(key, (k, arrivalTime) -> {
+            var time = (arrivalTime == null) ? now : Math.max(arrivalTime, now);
+
+            if (time - now > tolerance) {
+                state[REMAINING] = 0;
+                state[RESET] = time - tolerance - now;
+
+                return arrivalTime;
+            }
+
+            var next = time + interval;
+
+            state[REMAINING] = (period - (next - now)) / interval;
+            state[RESET] = next - now;
+
+            acquired[0] = true;
+
+            return next;
+        });
+
+        return acquired[0];
+    }
+
+    private void evict(long now) {
+        var lastEvictionTime = this.lastEvictionTime.get();
+
+        if (now - lastEvictionTime < period || !this.lastEvictionTime.compareAndSet(lastEvictionTime, now)) {
+            return;
+        }
+
+        // Entries whose arrival time has passed are equivalent to a full bucket; an entry is only removed if it
+        // has not been updated since it was read
+        for (var entry : entries.entrySet()) {
+            var arrivalTime = entry.getValue();
+
+            if (arrivalTime <= now) {
+                entries.remove(entry.getKey(), arrivalTime);
+            }
+        }
+    }
+}
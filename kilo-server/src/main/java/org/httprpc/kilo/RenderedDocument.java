@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+class RenderedDocument {
+    interface Renderer {
+        void render(OutputStream outputStream) throws IOException;
+    }
+
+    private String contentType;
+    private byte[] body;
+    private String eTag;
+
+    private RenderedDocument(String contentType, byte[] body) {
+        this.contentType = contentType;
+        this.body = body;
+
+        eTag = WebService.getETag(WebService.getDigest(body), null);
+    }
+
+    void write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(contentType);
+        response.setHeader("Vary", "Accept, Accept-Language");
+        response.setHeader("ETag", eTag);
+
+        if (WebService.isMatch(request.getHeader("If-None-Match"), eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    static RenderedDocument get(Map<List<?>, RenderedDocument> documents, List<?> key, String contentType, Renderer renderer) throws IOException {
+        var document = documents.get(key);
+
+        if (document == null) {
+            var outputStream = new ByteArrayOutputStream(8192);
+
+            renderer.render(outputStream);
+
+            var renderedDocument = new RenderedDocument(contentType, outputStream.toByteArray());
+
+            document = documents.putIfAbsent(key, renderedDocument);
+
+            if (document == null) {
+                document = renderedDocument;
+            }
+        }
+
+        return document;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class RequestCoalescer {
+    private long timeout;
+
+    private Map<Object, CompletableFuture<ResponseCache.Entry>> flights = new ConcurrentHashMap<>();
+
+    RequestCoalescer(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Joins the flight for a given key.
+     *
+     * @param key
+     * The key.
+     *
+     * @return
+     * The flight's result, or {@code null} if the caller is responsible for
+     * producing it.
+     */
+    CompletableFuture<ResponseCache.Entry> join(Object key) {
+        return flights.putIfAbsent(key, new CompletableFuture<>());
+    }
+
+    ResponseCache.Entry await(CompletableFuture<ResponseCache.Entry> flight) throws ExecutionException, TimeoutException, InterruptedException {
+        return flight.get(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    void complete(Object key, ResponseCache.Entry entry) {
+        var flight = flights.get(key);
+
+        if (flight != null) {
+            flight.complete(entry);
+        }
+    }
+
+    void fail(Object key, Throwable cause) {
+        var flight = flights.get(key);
+
+        if (flight != null) {
+            flight.completeExceptionally(cause);
+        }
+    }
+
+    void release(Object key) {
+        var flight = flights.remove(key);
+
+        if (flight != null) {
+            flight.complete(null);
+        }
+    }
+}
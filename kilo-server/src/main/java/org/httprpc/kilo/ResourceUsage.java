@@ -0,0 +1,163 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+class ResourceUsage {
+    private long cpuTime = 0;
+    private long allocation = 0;
+
+    // Thread counters at the start of the current phase
+    private boolean active = false;
+
+    private long cpuTimeStart = 0;
+    private long allocationStart = 0;
+
+    private static final String ATTRIBUTE_NAME = ResourceUsage.class.getName();
+
+    private static final com.sun.management.ThreadMXBean threadMXBean;
+
+    // Thread.isVirtual() is not available in Java 17
+    private static final Method isVirtual;
+
+    static {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean extendedThreadMXBean
+            && extendedThreadMXBean.isCurrentThreadCpuTimeSupported() && extendedThreadMXBean.isThreadCpuTimeEnabled()
+            && extendedThreadMXBean.isThreadAllocatedMemorySupported() && extendedThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+            threadMXBean = extendedThreadMXBean;
+        } else {
+            threadMXBean = null;
+        }
+
+        Method method;
+        try {
+            method = Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException exception) {
+            method = null;
+        }
+
+        isVirtual = method;
+    }
+
+    /**
+     * Indicates that the JVM supports per-thread CPU time and allocation
+     * measurement.
+     *
+     * @return
+     * {@code true} if resource usage can be measured; {@code false},
+     * otherwise.
+     */
+    static boolean isSupported() {
+        return threadMXBean != null;
+    }
+
+    static ResourceUsage get(HttpServletRequest request) {
+        return (ResourceUsage)request.getAttribute(ATTRIBUTE_NAME);
+    }
+
+    static ResourceUsage start(HttpServletRequest request) {
+        var resourceUsage = new ResourceUsage();
+
+        request.setAttribute(ATTRIBUTE_NAME, resourceUsage);
+
+        resourceUsage.mark();
+
+        return resourceUsage;
+    }
+
+    /**
+     * Begins a processing phase. Must be called on the thread that performs
+     * the phase. Phases performed on virtual threads are not measured, since
+     * the JVM does not report per-thread counters for them.
+     */
+    void mark() {
+        if (isVirtualThread()) {
+            active = false;
+
+            return;
+        }
+
+        cpuTimeStart = threadMXBean.getCurrentThreadCpuTime();
+        allocationStart = threadMXBean.getCurrentThreadAllocatedBytes();
+
+        active = true;
+    }
+
+    /**
+     * Ends a processing phase. Must be called on the thread that called
+     * {@link #mark()}.
+     *
+     * @param cpuTimeHistogram
+     * The histogram to which the phase's CPU time will be recorded.
+     *
+     * @param allocationHistogram
+     * The histogram to which the phase's allocation will be recorded.
+     */
+    void record(Histogram cpuTimeHistogram, Histogram allocationHistogram) {
+        if (!active) {
+            return;
+        }
+
+        var cpuTime = threadMXBean.getCurrentThreadCpuTime() - cpuTimeStart;
+        var allocation = threadMXBean.getCurrentThreadAllocatedBytes() - allocationStart;
+
+        active = false;
+
+        cpuTimeHistogram.record(cpuTime);
+        allocationHistogram.record(allocation);
+
+        this.cpuTime += cpuTime;
+        this.allocation += allocation;
+    }
+
+    private static boolean isVirtualThread() {
+        if (isVirtual == null) {
+            return false;
+        }
+
+        try {
+            return (Boolean)isVirtual.invoke(Thread.currentThread());
+        } catch (IllegalAccessException | InvocationTargetException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /**
+     * Returns the CPU time consumed by the request, including the current
+     * phase.
+     *
+     * @return
+     * The CPU time, in nanoseconds.
+     */
+    long getCPUTime() {
+        return active ? cpuTime + threadMXBean.getCurrentThreadCpuTime() - cpuTimeStart : cpuTime;
+    }
+
+    /**
+     * Returns the memory allocated by the request, including the current
+     * phase.
+     *
+     * @return
+     * The number of bytes allocated.
+     */
+    long getAllocation() {
+        return active ? allocation + threadMXBean.getCurrentThreadAllocatedBytes() - allocationStart : allocation;
+    }
+}
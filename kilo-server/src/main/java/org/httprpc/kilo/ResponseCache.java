@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class ResponseCache {
+    static class Entry {
+        final int status;
+        final String contentType;
+        final byte[] body;
+        final String digest;
+
+        long expirationTime;
+
+        Entry(int status, String contentType, byte[] body, String digest) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+            this.digest = digest;
+        }
+    }
+
+    private static class Load {
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+        final int generation;
+
+        Load(int generation) {
+            this.generation = generation;
+        }
+    }
+
+    private long ttl;
+    private long timeout;
+
+    private Map<Object, Entry> entries;
+    private Map<Object, Load> loads = new ConcurrentHashMap<>();
+
+    private volatile int generation = 0;
+
+    ResponseCache(long ttl, int maxEntries, long timeout) {
+        this.ttl = ttl;
+        this.timeout = timeout;
+
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    Entry get(Object key) {
+        synchronized (entries) {
+            var entry = entries.get(key);
+
+            if (entry != null && entry.expirationTime <= System.currentTimeMillis()) {
+                entries.remove(key);
+
+                entry = null;
+            }
+
+            return entry;
+        }
+    }
+
+    /**
+     * Begins loading the response for a given key.
+     *
+     * @param key
+     * The key.
+     *
+     * @return
+     * The pending result of a load that is already in progress, or
+     * {@code null} if the caller is responsible for producing the response.
+     */
+    CompletableFuture<Entry> load(Object key) {
+        var load = new Load(generation);
+
+        var existing = loads.putIfAbsent(key, load);
+
+        if (existing != null) {
+            return existing.future;
+        }
+
+        // The response may have been stored by another request since the caller's lookup
+        var entry = get(key);
+
+        if (entry != null) {
+            loads.remove(key, load);
+
+            load.future.complete(entry);
+
+            return load.future;
+        }
+
+        return null;
+    }
+
+    /**
+     * Waits for a response that is being loaded by another request.
+     *
+     * @param load
+     * The pending result.
+     *
+     * @return
+     * The loaded entry, or {@code null} if the other request did not produce
+     * a response that can be shared.
+     */
+    Entry await(CompletableFuture<Entry> load) throws ExecutionException, TimeoutException, InterruptedException {
+        return load.get(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    void put(Object key, Entry entry) {
+        var load = loads.get(key);
+
+        if (load == null) {
+            return;
+        }
+
+        entry.expirationTime = System.currentTimeMillis() + ttl;
+
+        synchronized (entries) {
+            if (load.generation != generation) {
+                return;
+            }
+
+            entries.put(key, entry);
+        }
+
+        load.future.complete(entry);
+    }
+
+    void fail(Object key, Throwable cause) {
+        var load = loads.get(key);
+
+        if (load != null) {
+            load.future.completeExceptionally(cause);
+        }
+    }
+
+    void release(Object key) {
+        var load = loads.remove(key);
+
+        if (load != null) {
+            load.future.complete(null);
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            generation++;
+
+            entries.clear();
+        }
+    }
+}
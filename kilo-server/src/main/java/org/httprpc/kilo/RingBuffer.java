@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer, single-consumer queue; each slot's sequence number
+// indicates whether it is free for the producer claiming a given position or
+// holds an element ready for the consumer
+class RingBuffer<E> {
+    private Object[] elements;
+    private AtomicLongArray sequences;
+
+    private int mask;
+
+    private AtomicLong tail = new AtomicLong();
+    private long head = 0;
+
+    RingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException();
+        }
+
+        elements = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+
+        mask = capacity - 1;
+
+        for (var i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int getCapacity() {
+        return elements.length;
+    }
+
+    /**
+     * Adds an element to the buffer. May be called by any thread.
+     *
+     * @param element
+     * The element to add.
+     *
+     * @return
+     * {@code true} if the element was added; {@code false} if the buffer is
+     * full.
+     */
+    boolean offer(E element) {
+        while (true) {
+            var position = tail.get();
+
+            var i = (int)position & mask;
+
+            var difference = sequences.get(i) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[i] = element;
+
+                    sequences.lazySet(i, position + 1);
+
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes an element from the buffer. Must only be called by the consumer
+     * thread.
+     *
+     * @return
+     * The element, or {@code null} if no element is available.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        var i = (int)head & mask;
+
+        if (sequences.get(i) != head + 1) {
+            return null;
+        }
+
+        var element = (E)elements[i];
+
+        elements[i] = null;
+
+        sequences.lazySet(i, head + elements.length);
+
+        head++;
+
+        return element;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.ServletContext;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class ServerContext implements InvocationHandler {
+    private String contextPath;
+
+    private Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private static final System.Logger logger = System.getLogger(WebServer.class.getName());
+
+    private ServerContext(String contextPath) {
+        this.contextPath = contextPath;
+    }
+
+    static ServletContext of(String contextPath) {
+        return (ServletContext)Proxy.newProxyInstance(ServerContext.class.getClassLoader(), new Class<?>[] {ServletContext.class}, new ServerContext(contextPath));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] arguments) {
+        return switch (method.getName()) {
+            case "getContextPath" -> contextPath;
+            case "getServletContextName" -> null;
+            case "getServerInfo" -> WebServer.SERVER_INFO;
+            case "getMajorVersion", "getEffectiveMajorVersion" -> 5;
+            case "getMinorVersion", "getEffectiveMinorVersion" -> 0;
+            case "getInitParameter" -> null;
+            case "getInitParameterNames" -> Collections.emptyEnumeration();
+            case "getAttribute" -> attributes.get((String)arguments[0]);
+            case "getAttributeNames" -> Collections.enumeration(attributes.keySet());
+            case "setAttribute" -> {
+                if (arguments[1] == null) {
+                    attributes.remove((String)arguments[0]);
+                } else {
+                    attributes.put((String)arguments[0], arguments[1]);
+                }
+
+                yield null;
+            }
+            case "removeAttribute" -> attributes.remove((String)arguments[0]);
+            case "getMimeType" -> URLConnection.guessContentTypeFromName((String)arguments[0]);
+            case "getClassLoader" -> Thread.currentThread().getContextClassLoader();
+            case "log" -> {
+                if (arguments.length == 1) {
+                    logger.log(System.Logger.Level.INFO, (String)arguments[0]);
+                } else if (arguments[0] instanceof Exception exception) {
+                    logger.log(System.Logger.Level.ERROR, (String)arguments[1], exception);
+                } else {
+                    logger.log(System.Logger.Level.ERROR, (String)arguments[0], (Throwable)arguments[1]);
+                }
+
+                yield null;
+            }
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == arguments[0];
+            case "toString" -> ServletContext.class.getName() + "[" + contextPath + "]";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.httprpc.kilo.util.Collections.*;
+
+class ServerTiming {
+    long routing = 0;
+    long coercion = 0;
+    long decode = 0;
+    long handler = 0;
+    long encode = 0;
+
+    final LongAdder sql = new LongAdder();
+
+    ResourceUsage resourceUsage = null;
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private static final String ATTRIBUTE_NAME = ServerTiming.class.getName();
+
+    static ServerTiming get(HttpServletRequest request) {
+        return (ServerTiming)request.getAttribute(ATTRIBUTE_NAME);
+    }
+
+    static ServerTiming start(HttpServletRequest request) {
+        var serverTiming = new ServerTiming();
+
+        request.setAttribute(ATTRIBUTE_NAME, serverTiming);
+
+        return serverTiming;
+    }
+
+    void setHeader(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            response.setHeader(SERVER_TIMING, toString());
+        }
+    }
+
+    void setTrailer(HttpServletResponse response, long encodeStart) {
+        try {
+            response.setTrailerFields(() -> {
+                encode = System.nanoTime() - encodeStart;
+
+                return mapOf(entry(SERVER_TIMING, toString()));
+            });
+        } catch (IllegalStateException exception) {
+            setHeader(response);
+        }
+    }
+
+    Connection wrap(Connection connection) {
+        return (Connection)Proxy.newProxyInstance(ServerTiming.class.getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, arguments) -> {
+            var result = invoke(connection, method, arguments);
+
+            if (result instanceof Statement statement) {
+                var type = method.getReturnType();
+
+                return Proxy.newProxyInstance(ServerTiming.class.getClassLoader(), new Class<?>[] {type}, (statementProxy, statementMethod, statementArguments) -> {
+                    if (statementMethod.getName().startsWith("execute")) {
+                        var start = System.nanoTime();
+
+                        try {
+                            return invoke(statement, statementMethod, statementArguments);
+                        } finally {
+                            sql.add(System.nanoTime() - start);
+                        }
+                    } else {
+                        return invoke(statement, statementMethod, statementArguments);
+                    }
+                });
+            } else {
+                return result;
+            }
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] arguments) throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    @Override
+    public String toString() {
+        var metrics = mapOf(
+            entry("routing", routing),
+            entry("coercion", coercion),
+            entry("decode", decode),
+            entry("handler", handler),
+            entry("sql", sql.sum()),
+            entry("encode", encode)
+        );
+
+        var stringBuilder = new StringBuilder();
+
+        for (var entry : metrics.entrySet()) {
+            if (stringBuilder.length() > 0) {
+                stringBuilder.append(", ");
+            }
+
+            stringBuilder.append(entry.getKey());
+            stringBuilder.append(";dur=");
+            stringBuilder.append(String.format(Locale.ROOT, "%.3f", entry.getValue() / 1e6));
+        }
+
+        if (resourceUsage != null) {
+            stringBuilder.append(", cpu;dur=");
+            stringBuilder.append(String.format(Locale.ROOT, "%.3f", resourceUsage.getCPUTime() / 1e6));
+            stringBuilder.append(", alloc;desc=");
+            stringBuilder.append(resourceUsage.getAllocation());
+        }
+
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import jakarta.servlet.http.Part;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.httprpc.kilo.util.Collections.*;
+import static org.httprpc.kilo.util.Optionals.*;
+
+class StreamingPart implements Part {
+    private String name;
+    private String submittedFileName;
+    private String contentType;
+    private Map<String, List<String>> headers;
+
+    private InputStream inputStream;
+    private Path file = null;
+    private long size;
+
+    StreamingPart(String name, String submittedFileName, String contentType, Map<String, List<String>> headers, InputStream inputStream, long size) {
+        this.name = name;
+        this.submittedFileName = submittedFileName;
+        this.contentType = contentType;
+        this.headers = headers;
+        this.inputStream = inputStream;
+        this.size = size;
+    }
+
+    StreamingPart(String name, String submittedFileName, String contentType, Map<String, List<String>> headers, Path file, long size) {
+        this.name = name;
+        this.submittedFileName = submittedFileName;
+        this.contentType = contentType;
+        this.headers = headers;
+        this.file = file;
+        this.size = size;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return (file == null) ? inputStream : Files.newInputStream(file);
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getSubmittedFileName() {
+        return submittedFileName;
+    }
+
+    /**
+     * Returns the size of the part.
+     *
+     * @return
+     * The size of the part, or -1 if the part is streamed and its size is not
+     * known in advance.
+     */
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void write(String fileName) throws IOException {
+        if (file == null) {
+            try (var inputStream = this.inputStream) {
+                Files.copy(inputStream, Path.of(fileName));
+            }
+        } else {
+            Files.copy(file, Path.of(fileName));
+        }
+    }
+
+    @Override
+    public void delete() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public String getHeader(String name) {
+        var values = headers.get(name);
+
+        return (values == null) ? null : values.get(0);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        return coalesce(headers.get(name), listOf());
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return headers.keySet();
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.MultipartConfig;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.httprpc.kilo.util.Optionals.*;
+
+/**
+ * Hosts servlets such as {@link WebService} and {@link IndexServlet} using
+ * the JDK's built-in HTTP server, without a servlet container.
+ */
+public class WebServer {
+    private static class Registration implements ServletConfig {
+        final HttpServlet servlet;
+        final String[] urlPatterns;
+
+        final String servletName;
+        final Map<String, String> initParameters = new LinkedHashMap<>();
+
+        ServletContext servletContext = null;
+
+        Registration(HttpServlet servlet, String[] urlPatterns) {
+            this.servlet = servlet;
+            this.urlPatterns = urlPatterns;
+
+            var webServlet = servlet.getClass().getAnnotation(WebServlet.class);
+
+            if (webServlet != null) {
+                var initParams = webServlet.initParams();
+
+                for (var i = 0; i < initParams.length; i++) {
+                    initParameters.put(initParams[i].name(), initParams[i].value());
+                }
+            }
+
+            servletName = (webServlet == null || webServlet.name().isEmpty()) ? servlet.getClass().getName() : webServlet.name();
+        }
+
+        @Override
+        public String getServletName() {
+            return servletName;
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return servletContext;
+        }
+
+        @Override
+        public String getInitParameter(String name) {
+            return initParameters.get(name);
+        }
+
+        @Override
+        public Enumeration<String> getInitParameterNames() {
+            return Collections.enumeration(initParameters.keySet());
+        }
+    }
+
+    private static class Mapping {
+        final String path;
+        final HttpServlet servlet;
+
+        Mapping(String path, HttpServlet servlet) {
+            this.path = path;
+            this.servlet = servlet;
+        }
+    }
+
+    private InetSocketAddress address;
+
+    private String contextPath = "";
+    private ExecutorService executorService = null;
+    private int maxFormSize = DEFAULT_MAX_FORM_SIZE;
+
+    private List<Registration> registrations = new ArrayList<>();
+
+    private Map<String, HttpServlet> exactMappings = new HashMap<>();
+    private List<Mapping> prefixMappings = new ArrayList<>();
+    private HttpServlet rootServlet = null;
+    private HttpServlet defaultServlet = null;
+
+    private Map<HttpServlet, MultipartConfigElement> multipartConfigs = new HashMap<>();
+
+    private ServletContext servletContext = null;
+    private HttpServer httpServer = null;
+    private ExecutorService defaultExecutorService = null;
+
+    static final String SERVER_INFO = "Kilo";
+
+    private static final int DEFAULT_WORKER_COUNT = 200;
+    private static final int DEFAULT_MAX_FORM_SIZE = 2 * 1024 * 1024;
+
+    private static final MultipartConfigElement defaultMultipartConfig = new MultipartConfigElement("");
+
+    private static final System.Logger logger = System.getLogger(WebServer.class.getName());
+
+    /**
+     * Constructs a new web server.
+     *
+     * @param port
+     * The port on which the server will listen, or 0 to use an ephemeral
+     * port.
+     */
+    public WebServer(int port) {
+        this(new InetSocketAddress(port));
+    }
+
+    /**
+     * Constructs a new web server.
+     *
+     * @param address
+     * The address on which the server will listen.
+     */
+    public WebServer(InetSocketAddress address) {
+        if (address == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.address = address;
+    }
+
+    /**
+     * Returns the context path.
+     *
+     * @return
+     * The context path.
+     */
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    /**
+     * Sets the context path. The default value is the empty string.
+     *
+     * @param contextPath
+     * The context path. If not empty, the path must begin with a slash and
+     * must not end with one.
+     */
+    public void setContextPath(String contextPath) {
+        if (contextPath == null) {
+            throw new IllegalArgumentException();
+        }
+
+        if (!contextPath.isEmpty() && !(contextPath.startsWith("/") && !contextPath.endsWith("/"))) {
+            throw new IllegalArgumentException("Invalid context path.");
+        }
+
+        if (httpServer != null) {
+            throw new IllegalStateException("Server is running.");
+        }
+
+        this.contextPath = contextPath;
+    }
+
+    /**
+     * Returns the executor service.
+     *
+     * @return
+     * The executor service, or {@code null} if the default executor service
+     * will be used.
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Sets the executor service used to process requests. By default, each
+     * request is processed on a new virtual thread. On Java versions that do
+     * not support virtual threads, a fixed pool of 200 worker threads is used
+     * instead.
+     *
+     * @param executorService
+     * The executor service, or {@code null} for the default executor service.
+     */
+    public void setExecutorService(ExecutorService executorService) {
+        if (httpServer != null) {
+            throw new IllegalStateException("Server is running.");
+        }
+
+        this.executorService = executorService;
+    }
+
+    /**
+     * Returns the maximum form size.
+     *
+     * @return
+     * The maximum form size, in bytes.
+     */
+    public int getMaxFormSize() {
+        return maxFormSize;
+    }
+
+    /**
+     * Sets the maximum size of the form content that will be read into
+     * memory when request parameters are parsed. This includes URL-encoded
+     * form bodies as well as the non-file fields of multipart requests. The
+     * default value is 2 MB. Requests that exceed the limit are rejected with
+     * HTTP 413.
+     *
+     * @param maxFormSize
+     * The maximum form size, in bytes.
+     */
+    public void setMaxFormSize(int maxFormSize) {
+        if (maxFormSize < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        if (httpServer != null) {
+            throw new IllegalStateException("Server is running.");
+        }
+
+        this.maxFormSize = maxFormSize;
+    }
+
+    /**
+     * Adds a servlet to the server. The servlet is mapped to the URL patterns
+     * specified by its {@link WebServlet} annotation.
+     *
+     * @param servlet
+     * The servlet to add.
+     */
+    public void addServlet(HttpServlet servlet) {
+        if (servlet == null) {
+            throw new IllegalArgumentException();
+        }
+
+        var webServlet = servlet.getClass().getAnnotation(WebServlet.class);
+
+        if (webServlet == null) {
+            throw new IllegalArgumentException("Web servlet annotation is required.");
+        }
+
+        addServlet(servlet, coalesce(webServlet.urlPatterns().length > 0 ? webServlet.urlPatterns() : null, webServlet.value()));
+    }
+
+    /**
+     * Adds a servlet to the server.
+     *
+     * @param servlet
+     * The servlet to add.
+     *
+     * @param urlPatterns
+     * The URL patterns to which the servlet will be mapped. Exact patterns,
+     * path prefix patterns (ending with "/*"), the empty string (the context
+     * root), and "/" (the default servlet) are supported.
+     */
+    public void addServlet(HttpServlet servlet, String... urlPatterns) {
+        if (servlet == null || urlPatterns == null) {
+            throw new IllegalArgumentException();
+        }
+
+        if (urlPatterns.length == 0) {
+            throw new IllegalArgumentException("At least one URL pattern is required.");
+        }
+
+        if (httpServer != null) {
+            throw new IllegalStateException("Server is running.");
+        }
+
+        for (var i = 0; i < urlPatterns.length; i++) {
+            var urlPattern = urlPatterns[i];
+
+            if (urlPattern.isEmpty()) {
+                rootServlet = servlet;
+            } else if (urlPattern.equals("/")) {
+                defaultServlet = servlet;
+            } else if (urlPattern.equals("/*")) {
+                prefixMappings.add(new Mapping("", servlet));
+            } else if (urlPattern.startsWith("/") && urlPattern.endsWith("/*")) {
+                prefixMappings.add(new Mapping(urlPattern.substring(0, urlPattern.length() - 2), servlet));
+            } else if (urlPattern.startsWith("/") && !urlPattern.contains("*")) {
+                exactMappings.put(urlPattern, servlet);
+            } else {
+                throw new IllegalArgumentException("Unsupported URL pattern.");
+            }
+        }
+
+        // Longest prefix wins
+        prefixMappings.sort(Comparator.comparing((Mapping mapping) -> mapping.path.length()).reversed());
+
+        var multipartConfig = servlet.getClass().getAnnotation(MultipartConfig.class);
+
+        multipartConfigs.put(servlet, (multipartConfig == null) ? defaultMultipartConfig : new MultipartConfigElement(multipartConfig));
+
+        registrations.add(new Registration(servlet, urlPatterns));
+    }
+
+    /**
+     * Returns the port on which the server is listening.
+     *
+     * @return
+     * The port number.
+     */
+    public int getPort() {
+        return (httpServer == null) ? address.getPort() : httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Initializes the server's servlets, in the order in which they were
+     * added, and starts the server.
+     */
+    public synchronized void start() throws IOException, ServletException {
+        if (httpServer != null) {
+            throw new IllegalStateException("Server is running.");
+        }
+
+        servletContext = ServerContext.of(contextPath);
+
+        var initialized = new ArrayList<Registration>(registrations.size());
+
+        try {
+            for (var registration : registrations) {
+                registration.servletContext = servletContext;
+
+                registration.servlet.init(registration);
+
+                initialized.add(registration);
+            }
+        } catch (ServletException | RuntimeException exception) {
+            destroy(initialized);
+
+            throw exception;
+        }
+
+        var httpServer = HttpServer.create(address, 0);
+
+        httpServer.createContext(contextPath.isEmpty() ? "/" : contextPath, this::handle);
+
+        if (executorService == null) {
+            defaultExecutorService = WebService.newVirtualThreadPerTaskExecutor(() -> Executors.newFixedThreadPool(DEFAULT_WORKER_COUNT));
+
+            httpServer.setExecutor(defaultExecutorService);
+        } else {
+            httpServer.setExecutor(executorService);
+        }
+
+        httpServer.start();
+
+        this.httpServer = httpServer;
+    }
+
+    /**
+     * Stops the server and destroys its servlets.
+     */
+    public synchronized void stop() {
+        if (httpServer == null) {
+            return;
+        }
+
+        httpServer.stop(0);
+
+        httpServer = null;
+
+        if (defaultExecutorService != null) {
+            defaultExecutorService.shutdown();
+
+            defaultExecutorService = null;
+        }
+
+        destroy(registrations);
+    }
+
+    private static void destroy(List<Registration> registrations) {
+        for (var i = registrations.size() - 1; i >= 0; i--) {
+            try {
+                registrations.get(i).servlet.destroy();
+            } catch (RuntimeException exception) {
+                logger.log(System.Logger.Level.ERROR, exception.getMessage(), exception);
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            var path = exchange.getRequestURI().getPath();
+
+            if (path == null || !path.startsWith(contextPath)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            path = path.substring(contextPath.length());
+
+            if (!path.isEmpty() && !path.startsWith("/")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            HttpServlet servlet = null;
+            String servletPath = null;
+            String pathInfo = null;
+
+            servlet = exactMappings.get(path);
+
+            if (servlet != null) {
+                servletPath = path;
+            } else if (path.equals("/") && rootServlet != null) {
+                servlet = rootServlet;
+                servletPath = "";
+                pathInfo = path;
+            } else {
+                for (var mapping : prefixMappings) {
+                    if (path.equals(mapping.path) || path.startsWith(mapping.path + "/")) {
+                        servlet = mapping.servlet;
+                        servletPath = mapping.path;
+                        pathInfo = path.substring(mapping.path.length());
+
+                        if (pathInfo.isEmpty()) {
+                            pathInfo = null;
+                        }
+
+                        break;
+                    }
+                }
+
+                if (servlet == null && path.isEmpty()) {
+                    exchange.getResponseHeaders().set("Location", contextPath + "/");
+                    exchange.sendResponseHeaders(302, -1);
+                    return;
+                }
+
+                if (servlet == null && defaultServlet != null) {
+                    servlet = defaultServlet;
+                    servletPath = path;
+                }
+            }
+
+            if (servlet == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            var request = new ExchangeRequest(exchange, servletContext, multipartConfigs.get(servlet), maxFormSize, servletPath, pathInfo);
+            var response = new ExchangeResponse(exchange);
+
+            try {
+                servlet.service(request, response);
+            } catch (ExchangeRequest.SizeLimitExceededException exception) {
+                if (!response.isCommitted()) {
+                    response.reset();
+                    response.setStatus(413);
+                }
+            } catch (ServletException | RuntimeException exception) {
+                logger.log(System.Logger.Level.ERROR, exception.getMessage(), exception);
+
+                if (!response.isCommitted()) {
+                    response.reset();
+                    response.setStatus(500);
+                }
+            } finally {
+                request.deleteParts();
+            }
+
+            response.finish();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    static <T> T unsupported(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(WebServer.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, arguments) -> {
+            throw new UnsupportedOperationException(method.getName());
+        }));
+    }
+}
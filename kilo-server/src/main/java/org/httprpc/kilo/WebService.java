@@ -14,6 +14,8 @@
 
 package org.httprpc.kilo;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -29,6 +31,11 @@ import javax.naming.InitialContext;
 import javax.naming.NamingException;
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -37,30 +44,59 @@ import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Period;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static org.httprpc.kilo.util.Collections.*;
 import static org.httprpc.kilo.util.Optionals.*;
@@ -656,7 +692,7 @@ public abstract class WebService extends HttpServlet {
     private static class Resource {
         Map<String, Resource> resources = new TreeMap<>();
 
-        Map<String, List<Method>> handlerMap = new TreeMap<>((method1, method2) -> {
+        Map<String, List<Handler>> handlerMap = new TreeMap<>((method1, method2) -> {
             var i1 = methodOrder.indexOf(method1);
             var i2 = methodOrder.indexOf(method2);
 
@@ -666,15 +702,331 @@ public abstract class WebService extends HttpServlet {
         static final List<String> methodOrder = immutableListOf("GET", "POST", "PUT", "DELETE");
     }
 
-    private Resource root = null;
+    private static class Route {
+        String[] names;
+        Route[] children;
+
+        Route wildcard = null;
+
+        Handler[][] handlers;
+
+        Route get(String path, int start, int end) {
+            var mask = names.length - 1;
+
+            var n = end - start;
+
+            for (var i = hash(path, start, end) & mask; names[i] != null; i = (i + 1) & mask) {
+                var name = names[i];
+
+                if (name.length() == n && path.regionMatches(start, name, 0, n)) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+        static int hash(String text, int start, int end) {
+            var h = 0;
+
+            for (var i = start; i < end; i++) {
+                h = 31 * h + text.charAt(i);
+            }
+
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static class Handler {
+        final Method method;
+        final MethodHandle invoker;
+
+        final String[] names;
+        final Class<?>[] types;
+        final Function<List<?>, Object>[] coercers;
+
+        final Type bodyType;
+
+        final int status;
+        final boolean voidReturnType;
+
+        final boolean get;
+        final boolean readOnly;
+        final boolean uncompressed;
+        final boolean conditional;
+        final boolean streaming;
+
+        final ResponseCache responseCache;
+        final RequestCoalescer requestCoalescer;
+
+        final Priority.Level priority;
+
+        EndpointMetrics metrics = null;
+        RateLimiter rateLimiter = null;
+        ConcurrencyLimiter concurrencyLimiter = null;
+
+        @SuppressWarnings("unchecked")
+        Handler(Method method, boolean get, boolean readOnly) throws ServletException {
+            this.method = method;
+            this.get = get;
+            this.readOnly = readOnly;
+
+            uncompressed = method.getAnnotation(Uncompressed.class) != null;
+            conditional = method.getAnnotation(Conditional.class) != null;
+
+            var cacheable = method.getAnnotation(Cacheable.class);
+
+            responseCache = (cacheable == null) ? null : new ResponseCache(cacheable.ttl(), cacheable.maxEntries(), cacheable.timeout());
+
+            var coalesced = method.getAnnotation(Coalesced.class);
+
+            requestCoalescer = (coalesced == null) ? null : new RequestCoalescer(coalesced.timeout());
+
+            priority = coalesce(map(method.getAnnotation(Priority.class), Priority::value), Priority.Level.NORMAL);
+
+            try {
+                var methodHandle = MethodHandles.lookup().unreflect(method).asFixedArity();
+
+                invoker = methodHandle.asType(methodHandle.type().generic()).asSpreader(Object[].class, method.getParameterCount());
+            } catch (IllegalAccessException exception) {
+                throw new ServletException(exception);
+            }
+
+            var parameters = method.getParameters();
+
+            var n = parameters.length;
+
+            names = new String[n];
+            types = new Class<?>[n];
+            coercers = new Function[n];
+
+            var streaming = false;
+
+            for (var i = 0; i < n; i++) {
+                var parameter = parameters[i];
+
+                names[i] = coalesce(map(parameter.getAnnotation(Name.class), Name::value), parameter.getName());
+                types[i] = parameter.getType();
+                coercers[i] = getCoercer(parameter);
+
+                if (types[i] == Iterator.class) {
+                    if (!(parameter.getParameterizedType() instanceof ParameterizedType parameterizedType)
+                        || parameterizedType.getActualTypeArguments()[0] != Part.class) {
+                        throw new ServletException("Unsupported iterator type.");
+                    }
+
+                    streaming = true;
+                }
+            }
+
+            this.streaming = streaming;
+
+            bodyType = (n > 0) ? parameters[n - 1].getParameterizedType() : null;
+
+            if (method.getAnnotation(Accepts.class) != null) {
+                status = HttpServletResponse.SC_ACCEPTED;
+            } else if (method.getAnnotation(Creates.class) != null) {
+                status = HttpServletResponse.SC_CREATED;
+            } else {
+                status = HttpServletResponse.SC_OK;
+            }
+
+            var returnType = method.getReturnType();
+
+            if (CompletionStage.class.isAssignableFrom(returnType)
+                && method.getGenericReturnType() instanceof ParameterizedType parameterizedType) {
+                voidReturnType = parameterizedType.getActualTypeArguments()[0] == Void.class;
+            } else {
+                voidReturnType = (returnType == Void.TYPE || returnType == Void.class);
+            }
+        }
+
+        static Function<List<?>, Object> getCoercer(Parameter parameter) {
+            var type = parameter.getType();
+
+            if (type.isArray()) {
+                var componentType = type.getComponentType();
+
+                return values -> {
+                    Object argument;
+                    if (values != null) {
+                        argument = Array.newInstance(componentType, values.size());
+
+                        var j = 0;
+
+                        for (var value : values) {
+                            Array.set(argument, j++, BeanAdapter.coerce(value, componentType));
+                        }
+                    } else {
+                        argument = Array.newInstance(componentType, 0);
+                    }
+
+                    return argument;
+                };
+            } else if (Collection.class.isAssignableFrom(type)) {
+                if (!(parameter.getParameterizedType() instanceof ParameterizedType parameterizedType)
+                    || !(parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType)) {
+                    return values -> {
+                        throw new UnsupportedOperationException("Unsupported element type.");
+                    };
+                }
+
+                if (type == List.class) {
+                    return values -> (values == null) ? listOf() : BeanAdapter.coerceList(values, elementType);
+                } else if (type == Set.class) {
+                    return values -> (values == null) ? setOf() : BeanAdapter.coerceSet(values, elementType);
+                } else {
+                    return values -> {
+                        throw new UnsupportedOperationException("Unsupported collection type.");
+                    };
+                }
+            } else {
+                var required = parameter.getAnnotation(Required.class) != null;
+
+                return values -> {
+                    Object value;
+                    if (values != null) {
+                        value = values.get(values.size() - 1);
+                    } else {
+                        value = null;
+                    }
+
+                    if (required && value == null) {
+                        throw new IllegalArgumentException("Required argument is not defined.");
+                    }
+
+                    return BeanAdapter.coerce(value, type);
+                };
+            }
+        }
+    }
+
+    private static class Transaction {
+        final WebService service;
+
+        boolean readOnly = false;
+        boolean detached = false;
+
+        Connection connection = null;
+
+        int transactionIsolation = Connection.TRANSACTION_NONE;
+
+        List<ResponseCache> invalidatedCaches = new ArrayList<>();
+
+        ServerTiming serverTiming = null;
+
+        Deadline deadline;
+
+        Transaction(WebService service, Deadline deadline) {
+            this.service = service;
+            this.deadline = deadline;
+        }
+
+        Connection open() throws SQLException {
+            if (deadline != null) {
+                deadline.check();
+            }
+
+            if (readOnly) {
+                connection = service.openReadOnlyConnection();
+
+                if (connection != null) {
+                    transactionIsolation = connection.getTransactionIsolation();
+
+                    connection.setReadOnly(true);
+                    connection.setTransactionIsolation(service.getReadOnlyTransactionIsolation());
+                }
+            } else {
+                connection = service.openConnection();
+
+                if (connection != null) {
+                    connection.setAutoCommit(false);
+                }
+            }
+
+            if (connection != null && deadline != null) {
+                connection = deadline.wrap(connection);
+            }
+
+            if (connection != null && serverTiming != null) {
+                connection = serverTiming.wrap(connection);
+            }
+
+            return connection;
+        }
+
+        void end(boolean commit) throws SQLException {
+            try {
+                if (connection == null || readOnly) {
+                    return;
+                }
+
+                if (commit) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+            } finally {
+                for (var responseCache : invalidatedCaches) {
+                    responseCache.clear();
+                }
+            }
+        }
+
+        void close() throws SQLException {
+            if (connection == null) {
+                return;
+            }
+
+            try {
+                if (readOnly) {
+                    connection.setReadOnly(false);
+                    connection.setTransactionIsolation(transactionIsolation);
+                } else {
+                    connection.setAutoCommit(true);
+                }
+            } finally {
+                connection.close();
+
+                connection = null;
+            }
+        }
+    }
+
+    private Route root = null;
+
+    private String[] methods = null;
+
+    private int maxKeyCount = 0;
+
+    private List<Handler> cacheableHandlers = new ArrayList<>();
+
+    private String path = null;
+    private Resource resource = null;
 
     private ServiceDescriptor serviceDescriptor = null;
 
+    private List<EndpointMetrics> endpointMetrics = new ArrayList<>();
+
+    private final Map<List<?>, RenderedDocument> apiDocuments = new ConcurrentHashMap<>();
+
     private static final Map<Class<? extends WebService>, WebService> instances = new HashMap<>();
 
-    private static final Comparator<Method> methodNameComparator = Comparator.comparing(Method::getName);
-    private static final Comparator<Method> methodParameterCountComparator = Comparator.comparing(Method::getParameterCount);
+    private static final Comparator<Handler> methodNameComparator = Comparator.comparing(handler -> handler.method.getName());
+    private static final Comparator<Handler> methodParameterCountComparator = Comparator.comparing(handler -> handler.method.getParameterCount());
+
+    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+
+    private ExecutorService executorService = null;
 
+    private boolean serverTimingEnabled = false;
+    private boolean resourceAccountingEnabled = false;
+
+    private ExecutorService batchExecutorService = null;
+
+    private AccessLog accessLog = null;
+
+    private static final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
     private static final ThreadLocal<Connection> connection = new ThreadLocal<>();
 
     private static final ThreadLocal<HttpServletRequest> request = new ThreadLocal<>();
@@ -710,8 +1062,14 @@ public abstract class WebService extends HttpServlet {
      */
     protected static final String CONTENT_TYPE_FORMAT = "%s;charset=%s";
 
-    private static final String APPLICATION_X_WWW_FORM_URLENCODED = "application/x-www-form-urlencoded";
-    private static final String MULTIPART_FORM_DATA = "multipart/form-data";
+    static final String APPLICATION_X_WWW_FORM_URLENCODED = "application/x-www-form-urlencoded";
+    static final String MULTIPART_FORM_DATA = "multipart/form-data";
+
+    private static final String ETAG = "ETag";
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private static final String BATCH = "batch";
 
     /**
      * Returns a service instance.
@@ -732,18 +1090,35 @@ public abstract class WebService extends HttpServlet {
     }
 
     /**
-     * Returns a list of descriptors for all active services.
+     * Returns a list of descriptors for all active services. Services that
+     * cannot be described are logged and omitted.
      *
      * @return
      * A list of active service descriptors.
      */
     public static synchronized List<ServiceDescriptor> getServiceDescriptors() {
-        return instances.values().stream()
-            .map(WebService::getServiceDescriptor)
+        var serviceDescriptors = new ArrayList<ServiceDescriptor>(instances.size());
+
+        for (var service : instances.values()) {
+            try {
+                serviceDescriptors.add(service.getServiceDescriptor());
+            } catch (RuntimeException exception) {
+                service.log(exception.getMessage(), exception);
+            }
+        }
+
+        return serviceDescriptors.stream()
             .sorted(Comparator.comparing(WebService.ServiceDescriptor::getPath))
             .toList();
     }
 
+    static synchronized List<EndpointMetrics> getEndpointMetrics() {
+        return instances.values().stream()
+            .sorted(Comparator.comparing(service -> service.path))
+            .flatMap(service -> service.endpointMetrics.stream())
+            .toList();
+    }
+
     @Override
     public void init() throws ServletException {
         var type = getClass();
@@ -768,20 +1143,78 @@ public abstract class WebService extends HttpServlet {
 
         path = path.substring(0, path.length() - 2);
 
-        root = index(type.getMethods());
+        var handlers = HandlerIndex.load(type);
+
+        if (handlers == null) {
+            handlers = type.getMethods();
+        }
+
+        var resource = index(handlers, type.getAnnotation(ReadOnly.class) != null);
+
+        var methods = new ArrayList<>(Resource.methodOrder);
 
-        serviceDescriptor = new ServiceDescriptor(path, type);
+        collectMethods(resource, methods);
 
-        describeResource(path, root);
+        this.methods = methods.toArray(new String[0]);
+
+        root = compile(resource, 0);
+
+        resourceAccountingEnabled = isResourceAccountingEnabled() && ResourceUsage.isSupported();
+
+        measureResource(path, resource, getConcurrencyLimit());
+
+        this.path = path;
+        this.resource = resource;
+
+        if (isVirtualThreadsEnabled()) {
+            executorService = newVirtualThreadPerTaskExecutor(Executors::newCachedThreadPool);
+        }
+
+        serverTimingEnabled = isServerTimingEnabled();
+
+        var batchConcurrency = getBatchConcurrency();
+
+        if (batchConcurrency > 0) {
+            batchExecutorService = Executors.newFixedThreadPool(batchConcurrency);
+        }
+
+        accessLog = getAccessLog();
 
         synchronized (WebService.class) {
             instances.put(type, this);
         }
     }
 
-    private static Resource index(Method[] methods) throws ServletException {
+    static ExecutorService newVirtualThreadPerTaskExecutor(Supplier<ExecutorService> fallback) {
+        try {
+            var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService)method.invoke(null);
+        } catch (NoSuchMethodException | InvocationTargetException exception) {
+            return fallback.get();
+        } catch (IllegalAccessException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+
+        if (batchExecutorService != null) {
+            batchExecutorService.shutdown();
+        }
+
+        super.destroy();
+    }
+
+    private static Resource index(Method[] methods, boolean readOnly) throws ServletException {
         var root = new Resource();
 
+        var validator = new HandlerValidator();
+
         for (var i = 0; i < methods.length; i++) {
             var handler = methods[i];
 
@@ -790,6 +1223,12 @@ public abstract class WebService extends HttpServlet {
             if (requestMethod != null) {
                 var method = requestMethod.value().toUpperCase();
 
+                var message = validator.validate(method, handler::getAnnotation);
+
+                if (message != null) {
+                    throw new ServletException(message);
+                }
+
                 var resource = root;
 
                 var resourcePath = handler.getAnnotation(ResourcePath.class);
@@ -798,17 +1237,15 @@ public abstract class WebService extends HttpServlet {
                     var components = resourcePath.value().split("/");
 
                     for (var j = 0; j < components.length; j++) {
-                        var component = components[j];
-
-                        if (component.isEmpty()) {
-                            throw new ServletException("Invalid resource path.");
-                        }
-
-                        resource = resource.resources.computeIfAbsent(component, key -> new Resource());
+                        resource = resource.resources.computeIfAbsent(components[j], key -> new Resource());
                     }
                 }
 
-                resource.handlerMap.computeIfAbsent(method, key -> new LinkedList<>()).add(handler);
+                var get = method.equals("GET");
+
+                var handlers = resource.handlerMap.computeIfAbsent(method, key -> new LinkedList<>());
+
+                handlers.add(new Handler(handler, get, get && (readOnly || handler.getAnnotation(ReadOnly.class) != null)));
             }
         }
 
@@ -827,69 +1264,214 @@ public abstract class WebService extends HttpServlet {
         }
     }
 
-    @Override
-    protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        try (var connection = openConnection()) {
-            if (connection != null) {
-                connection.setAutoCommit(false);
+    private static void collectMethods(Resource resource, List<String> methods) {
+        for (var method : resource.handlerMap.keySet()) {
+            if (!methods.contains(method)) {
+                methods.add(method);
             }
+        }
 
-            setConnection(connection);
+        for (var child : resource.resources.values()) {
+            collectMethods(child, methods);
+        }
+    }
 
-            try {
-                process(request, response);
+    private Route compile(Resource resource, int keyCount) {
+        var route = new Route();
 
-                if (connection != null) {
-                    if (response.getStatus() / 100 == 2) {
-                        connection.commit();
-                    } else {
-                        connection.rollback();
-                    }
-                }
-            } catch (Exception exception) {
-                if (connection != null) {
-                    connection.rollback();
-                }
+        var capacity = 1;
 
-                log(exception.getMessage(), exception);
+        while (capacity < resource.resources.size() * 2) {
+            capacity <<= 1;
+        }
 
-                throw exception;
-            } finally {
-                if (connection != null) {
-                    connection.setAutoCommit(true);
+        route.names = new String[capacity];
+        route.children = new Route[capacity];
+
+        var mask = capacity - 1;
+
+        for (var entry : resource.resources.entrySet()) {
+            var name = entry.getKey();
+
+            if (name.equals("?")) {
+                route.wildcard = compile(entry.getValue(), keyCount + 1);
+            } else {
+                var i = Route.hash(name, 0, name.length()) & mask;
+
+                while (route.names[i] != null) {
+                    i = (i + 1) & mask;
                 }
 
-                setConnection(null);
+                route.names[i] = name;
+                route.children[i] = compile(entry.getValue(), keyCount);
             }
-        } catch (SQLException exception) {
-            throw new ServletException(exception);
         }
-    }
 
-    /**
-     * Opens a database connection.
-     *
-     * @return
-     * A database connection, or {@code null} if the service does not require a
-     * database connection.
-     */
-    protected Connection openConnection() throws SQLException {
-        var dataSourceName = getDataSourceName();
+        route.handlers = new Handler[methods.length][];
 
-        if (dataSourceName != null) {
-            DataSource dataSource;
-            try {
-                var initialContext = new InitialContext();
+        for (var entry : resource.handlerMap.entrySet()) {
+            var handlers = entry.getValue();
 
-                dataSource = (DataSource)initialContext.lookup(dataSourceName);
-            } catch (NamingException exception) {
-                throw new IllegalStateException(exception);
-            }
+            RateLimiter rateLimiter = null;
 
-            return dataSource.getConnection();
-        } else {
-            return null;
-        }
+            for (var handler : handlers) {
+                if (handler.responseCache != null) {
+                    cacheableHandlers.add(handler);
+                }
+
+                var rateLimit = handler.method.getAnnotation(RateLimit.class);
+
+                if (rateLimit != null && rateLimiter == null) {
+                    rateLimiter = new RateLimiter(rateLimit.limit(), rateLimit.period());
+                }
+            }
+
+            for (var handler : handlers) {
+                handler.rateLimiter = rateLimiter;
+            }
+
+            route.handlers[getMethodIndex(entry.getKey())] = handlers.toArray(new Handler[0]);
+        }
+
+        maxKeyCount = Math.max(maxKeyCount, keyCount);
+
+        return route;
+    }
+
+    private int getMethodIndex(String method) {
+        for (var i = 0; i < methods.length; i++) {
+            if (methods[i].equalsIgnoreCase(method)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        var deadline = Deadline.of(request);
+
+        if (executorService != null && request.isAsyncSupported()) {
+            var asyncContext = request.startAsync();
+
+            asyncContext.setTimeout(0);
+
+            try {
+                executorService.execute(() -> {
+                    try {
+                        execute(request, response, deadline);
+                    } catch (Exception exception) {
+                        log(exception.getMessage(), exception);
+
+                        if (!response.isCommitted()) {
+                            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        }
+                    } finally {
+                        asyncContext.complete();
+                    }
+                });
+            } catch (RejectedExecutionException exception) {
+                // The executor has been shut down (for example, because the service is being destroyed)
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "1");
+
+                asyncContext.complete();
+            }
+        } else {
+            execute(request, response, deadline);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, Deadline deadline) throws ServletException, IOException {
+        // The client is no longer waiting for the response
+        if (deadline != null && deadline.isExpired()) {
+            response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            return;
+        }
+
+        var transaction = new Transaction(this, deadline);
+
+        WebService.transaction.set(transaction);
+
+        try {
+            try {
+                process(request, response);
+
+                if (!transaction.detached) {
+                    transaction.end(isSuccessful(response.getStatus()));
+                }
+            } catch (Exception exception) {
+                if (!transaction.detached) {
+                    transaction.end(false);
+                }
+
+                log(exception.getMessage(), exception);
+
+                throw exception;
+            } finally {
+                WebService.transaction.remove();
+
+                setConnection(null);
+
+                if (!transaction.detached) {
+                    transaction.close();
+                }
+            }
+        } catch (SQLException exception) {
+            throw new ServletException(exception);
+        }
+    }
+
+    /**
+     * Opens a database connection. The data source identified by
+     * {@link #getDataSourceName()} is looked up on first use and cached for
+     * subsequent requests.
+     *
+     * @return
+     * A database connection, or {@code null} if the service does not require a
+     * database connection.
+     */
+    protected Connection openConnection() throws SQLException {
+        var dataSourceName = getDataSourceName();
+
+        if (dataSourceName != null) {
+            return getDataSource(dataSourceName).getConnection();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Opens a read-only database connection. The connection is obtained via
+     * the data source identified by {@link #getReplicaDataSourceName()}, or
+     * by {@link #getDataSourceName()} if the service does not define a
+     * replica.
+     *
+     * @return
+     * A database connection, or {@code null} if the service does not require a
+     * database connection.
+     */
+    protected Connection openReadOnlyConnection() throws SQLException {
+        var dataSourceName = coalesce(getReplicaDataSourceName(), getDataSourceName());
+
+        if (dataSourceName != null) {
+            return getDataSource(dataSourceName).getConnection();
+        } else {
+            return null;
+        }
+    }
+
+    private DataSource getDataSource(String dataSourceName) {
+        return dataSources.computeIfAbsent(dataSourceName, key -> {
+            try {
+                var initialContext = new InitialContext();
+
+                return (DataSource)initialContext.lookup(key);
+            } catch (NamingException exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
     }
 
     /**
@@ -903,6 +1485,196 @@ public abstract class WebService extends HttpServlet {
         return null;
     }
 
+    /**
+     * Returns the name of the data source used by read-only methods.
+     *
+     * @return
+     * The replica data source name, or {@code null} if read-only methods
+     * should use the primary data source.
+     */
+    protected String getReplicaDataSourceName() {
+        return null;
+    }
+
+    /**
+     * Returns the transaction isolation level applied to read-only
+     * connections.
+     *
+     * @return
+     * The transaction isolation level. The default value is
+     * {@link Connection#TRANSACTION_READ_COMMITTED}.
+     */
+    protected int getReadOnlyTransactionIsolation() {
+        return Connection.TRANSACTION_READ_COMMITTED;
+    }
+
+    /**
+     * Indicates that service methods should be executed on virtual threads.
+     * If enabled and the service supports asynchronous operation, each
+     * request is processed on a thread provided by
+     * {@link #getExecutorService()}, and the container thread is released
+     * immediately. On Java versions that do not support virtual threads, a
+     * cached thread pool is used instead.
+     *
+     * @return
+     * {@code true} if service methods should be executed on virtual threads;
+     * {@code false}, otherwise.
+     */
+    protected boolean isVirtualThreadsEnabled() {
+        return false;
+    }
+
+    /**
+     * Indicates that a "Server-Timing" header should be included in service
+     * responses. If enabled, the time spent routing the request, coercing
+     * arguments, decoding the request body, executing the handler method,
+     * executing SQL statements on the request's connection, and encoding the
+     * result is reported. Streamed responses report the timings in a trailer
+     * when supported by the client.
+     *
+     * @return
+     * {@code true} if server timings should be reported; {@code false},
+     * otherwise.
+     */
+    protected boolean isServerTimingEnabled() {
+        return false;
+    }
+
+    /**
+     * Indicates that the CPU time consumed and memory allocated by each
+     * request should be measured. If enabled, the values are recorded per
+     * endpoint for the decode, handler, and encode phases, and are included
+     * in the "Server-Timing" header when server timings are reported. Only
+     * work performed on the request's own thread is measured, and phases
+     * executed on virtual threads are not measured. Has no effect if the JVM
+     * does not support per-thread CPU time and allocation measurement.
+     *
+     * @return
+     * {@code true} if resource usage should be measured; {@code false},
+     * otherwise.
+     */
+    protected boolean isResourceAccountingEnabled() {
+        return false;
+    }
+
+    /**
+     * Returns the maximum number of requests the service will process
+     * concurrently for each endpoint. If a limit is specified, each
+     * endpoint's effective limit is adjusted based on its observed latency,
+     * and requests that exceed it are rejected with HTTP 503 before any
+     * arguments are decoded or a database connection is opened.
+     * Lower-priority methods (see {@link Priority}) are rejected first.
+     *
+     * @return
+     * The concurrency limit, or 0 for no limit.
+     */
+    protected int getConcurrencyLimit() {
+        return 0;
+    }
+
+    /**
+     * Returns the maximum number of batched sub-requests the service will
+     * execute concurrently. If a value is specified, clients can submit a
+     * JSON array of sub-requests via a {@code POST} to the service's root
+     * path with a query string of {@code batch}. Each sub-request is routed
+     * and executed as if it had been submitted individually, and consecutive
+     * {@code GET} sub-requests are executed in parallel.
+     *
+     * @return
+     * The batch concurrency, or 0 if batch requests are not supported.
+     */
+    protected int getBatchConcurrency() {
+        return 0;
+    }
+
+    /**
+     * Returns the access log. If a log is specified, the method, endpoint,
+     * status, response size, latency, and principal of each request are
+     * recorded to it. The log may be shared by multiple services, and is not
+     * closed when the service is destroyed.
+     *
+     * @return
+     * The service's access log, or {@code null} if requests should not be
+     * logged.
+     */
+    protected AccessLog getAccessLog() {
+        return null;
+    }
+
+    /**
+     * Returns the key used to identify a client when applying
+     * {@link RateLimit} quotas. By default, the name of the authenticated
+     * principal is used, or the remote address if the request is not
+     * authenticated. Subclasses may override this method to identify clients
+     * by other means; for example, via an API key header.
+     *
+     * @param request
+     * The servlet request.
+     *
+     * @return
+     * The client's rate limit key.
+     */
+    protected String getRateLimitKey(HttpServletRequest request) {
+        return coalesce(map(request.getUserPrincipal(), Principal::getName), request.getRemoteAddr());
+    }
+
+    /**
+     * Returns the executor service used to execute service methods. The
+     * executor service is shut down when the service is destroyed.
+     *
+     * @return
+     * The service's executor service, or {@code null} if virtual threads are
+     * not enabled.
+     */
+    protected ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Discards all responses cached by the service's {@link Cacheable}
+     * methods. If called while a transaction is active, the responses are
+     * discarded again when the transaction ends, so that results produced by
+     * concurrent requests before the changes were committed are not retained.
+     */
+    protected void invalidateCache() {
+        for (var handler : cacheableHandlers) {
+            invalidate(handler.responseCache);
+        }
+    }
+
+    /**
+     * Discards the responses cached by the {@link Cacheable} methods
+     * associated with a given resource path or any of its descendants. As
+     * with {@link #invalidateCache()}, the responses are discarded again when
+     * the current transaction ends.
+     *
+     * @param path
+     * The resource path, or an empty string for the service's root resource.
+     */
+    protected void invalidateCache(String path) {
+        if (path == null) {
+            throw new IllegalArgumentException();
+        }
+
+        for (var handler : cacheableHandlers) {
+            var resourcePath = coalesce(map(handler.method.getAnnotation(ResourcePath.class), ResourcePath::value), "");
+
+            if (resourcePath.equals(path) || (!path.isEmpty() && resourcePath.startsWith(path + "/"))) {
+                invalidate(handler.responseCache);
+            }
+        }
+    }
+
+    private static void invalidate(ResponseCache responseCache) {
+        responseCache.clear();
+
+        var transaction = WebService.transaction.get();
+
+        if (transaction != null) {
+            transaction.invalidatedCaches.add(responseCache);
+        }
+    }
+
     /**
      * Processes a service request.
      *
@@ -922,203 +1694,1122 @@ public abstract class WebService extends HttpServlet {
         if (request.getMethod().equalsIgnoreCase("GET") && request.getPathInfo() == null && request.getParameter("api") != null) {
             var accept = request.getHeader("Accept");
 
-            if (accept != null && accept.equalsIgnoreCase(APPLICATION_JSON)) {
-                response.setContentType(String.format(CONTENT_TYPE_FORMAT, APPLICATION_JSON, StandardCharsets.UTF_8));
+            RenderedDocument document;
+            if (accept != null && accept.equalsIgnoreCase(APPLICATION_JSON)) {
+                document = RenderedDocument.get(apiDocuments, listOf(APPLICATION_JSON), String.format(CONTENT_TYPE_FORMAT, APPLICATION_JSON, StandardCharsets.UTF_8), outputStream -> {
+                    var jsonEncoder = new JSONEncoder();
+
+                    jsonEncoder.write(getServiceDescriptor(), outputStream);
+                });
+            } else {
+                var locale = request.getLocale();
+
+                document = RenderedDocument.get(apiDocuments, listOf(TEXT_HTML, locale), String.format(CONTENT_TYPE_FORMAT, TEXT_HTML, StandardCharsets.UTF_8), outputStream -> {
+                    var templateEncoder = new TemplateEncoder(WebService.class, "api.html");
+
+                    templateEncoder.setResourceBundle(ResourceBundle.getBundle(WebService.class.getName(), locale));
+                    templateEncoder.setLocale(locale);
+
+                    templateEncoder.write(mapOf(
+                        entry("language", locale.getLanguage()),
+                        entry("contextPath", request.getContextPath()),
+                        entry("service", getServiceDescriptor())
+                    ), outputStream);
+                });
+            }
+
+            document.write(request, response);
+        } else if (batchExecutorService != null && isBatch(request)) {
+            processBatch(request, response);
+        } else if (accessLog != null) {
+            invoke(request, new CountingResponse(response));
+        } else {
+            invoke(request, response);
+        }
+    }
+
+    private static boolean isBatch(HttpServletRequest request) {
+        return request.getMethod().equalsIgnoreCase("POST")
+            && request.getPathInfo() == null
+            && BATCH.equals(request.getQueryString())
+            && !(request instanceof BatchRequest);
+    }
+
+    private void processBatch(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        var batchRequests = new ArrayList<BatchRequest>();
+
+        try {
+            var jsonDecoder = new JSONDecoder();
+
+            if (!(jsonDecoder.read(getInputStream(request)) instanceof List<?> list)) {
+                throw new IllegalArgumentException("Invalid batch.");
+            }
+
+            for (var element : list) {
+                batchRequests.add(BatchRequest.of(request, element));
+            }
+        } catch (IOException | IllegalArgumentException exception) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+
+            reportError(response, exception);
+
+            return;
+        }
+
+        var n = batchRequests.size();
+
+        var batchResponses = new BatchResponse[n];
+
+        var deadline = transaction.get().deadline;
+
+        var futures = new ArrayList<Future<?>>(n);
+
+        // Requests other than GET may depend on or affect the results of their neighbors, so they are executed in isolation
+        for (var i = 0; i < n; i++) {
+            var batchRequest = batchRequests.get(i);
+            var batchResponse = new BatchResponse(response);
+
+            batchResponses[i] = batchResponse;
+
+            var get = batchRequest.getMethod().equals("GET");
+
+            if (!get) {
+                await(futures);
+            }
+
+            futures.add(batchExecutorService.submit(() -> {
+                try {
+                    execute(batchRequest, batchResponse, deadline);
+                } catch (Exception exception) {
+                    batchResponse.reset();
+                    batchResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                }
+            }));
+
+            if (!get) {
+                await(futures);
+            }
+        }
+
+        await(futures);
+
+        response.setContentType(String.format(CONTENT_TYPE_FORMAT, APPLICATION_JSON, StandardCharsets.UTF_8));
+
+        var writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+
+        var jsonEncoder = new JSONEncoder(true);
+
+        writer.append('[');
+
+        for (var i = 0; i < n; i++) {
+            var batchResponse = batchResponses[i];
+
+            if (i > 0) {
+                writer.append(',');
+            }
+
+            writer.append("{\"status\":");
+            writer.append(String.valueOf(batchResponse.getStatusCode()));
+
+            var body = batchResponse.getBody();
+            var contentType = map(batchResponse.getContentType(), String::toLowerCase);
+
+            var json = contentType != null && contentType.startsWith(APPLICATION_JSON);
+
+            if (body.length > 0 && !json && contentType != null) {
+                writer.append(",\"contentType\":");
+
+                jsonEncoder.write(contentType, writer);
+            }
+
+            writer.append(",\"body\":");
+
+            if (body.length == 0) {
+                writer.append("null");
+            } else if (json) {
+                writer.append(new String(body, StandardCharsets.UTF_8));
+            } else {
+                var charset = getCharset(contentType);
+
+                if (charset != null) {
+                    jsonEncoder.write(new String(body, charset), writer);
+                } else {
+                    jsonEncoder.write(Base64.getEncoder().encodeToString(body), writer);
+                }
+            }
+
+            writer.append('}');
+        }
+
+        writer.append(']');
+
+        writer.flush();
+    }
+
+    private static Charset getCharset(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+
+        var i = contentType.indexOf("charset=");
+
+        if (i != -1) {
+            var j = contentType.indexOf(';', i);
+
+            try {
+                return Charset.forName(contentType.substring(i + 8, (j == -1) ? contentType.length() : j).trim());
+            } catch (IllegalArgumentException exception) {
+                return null;
+            }
+        }
+
+        return contentType.startsWith("text/") ? StandardCharsets.UTF_8 : null;
+    }
+
+    private static void await(List<Future<?>> futures) throws ServletException {
+        try {
+            for (var future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException exception) {
+            for (var future : futures) {
+                future.cancel(true);
+            }
+
+            throw new ServletException(exception);
+        }
+
+        futures.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void invoke(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        var event = new InvokeEvent();
+
+        event.begin();
+
+        var start = System.nanoTime();
+
+        var route = root;
+
+        var keys = new String[maxKeyCount];
+        var keyCount = 0;
+
+        var pathInfo = request.getPathInfo();
+
+        if (pathInfo != null) {
+            var end = pathInfo.length();
+
+            while (end > 0 && pathInfo.charAt(end - 1) == '/') {
+                end--;
+            }
+
+            var offset = pathInfo.indexOf('/') + 1;
+
+            while (offset > 0 && offset <= end) {
+                var i = pathInfo.indexOf('/', offset);
+
+                if (i == -1 || i > end) {
+                    i = end;
+                }
+
+                var child = route.get(pathInfo, offset, i);
+
+                if (child == null) {
+                    child = route.wildcard;
+
+                    if (child == null) {
+                        response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+                        return;
+                    }
+
+                    keys[keyCount++] = pathInfo.substring(offset, i);
+                }
+
+                route = child;
+
+                offset = i + 1;
+            }
+        }
+
+        var methodIndex = getMethodIndex(request.getMethod());
+
+        var handlers = (methodIndex == -1) ? null : route.handlers[methodIndex];
+
+        if (handlers == null) {
+            response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        var metrics = handlers[0].metrics;
+
+        var rateLimiter = handlers[0].rateLimiter;
+
+        if (rateLimiter != null && !acquire(rateLimiter, request, response)) {
+            metrics.rateLimited.increment();
+
+            if (accessLog != null) {
+                logAccess(request, response, metrics, start);
+            }
+
+            return;
+        }
+
+        var concurrencyLimiter = handlers[0].concurrencyLimiter;
+
+        if (concurrencyLimiter != null && !concurrencyLimiter.acquire(getPriority(handlers))) {
+            metrics.rejected.increment();
+
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+
+            if (accessLog != null) {
+                logAccess(request, response, metrics, start);
+            }
+
+            return;
+        }
+
+        metrics.start();
+
+        var detached = false;
+
+        try {
+            ResourceUsage resourceUsage = null;
+
+            if (resourceAccountingEnabled) {
+                resourceUsage = ResourceUsage.start(request);
+            }
+
+            ServerTiming serverTiming = null;
+
+            if (serverTimingEnabled) {
+                serverTiming = ServerTiming.start(request);
+
+                serverTiming.routing = System.nanoTime() - start;
+                serverTiming.resourceUsage = resourceUsage;
+            }
+
+            if (request.getCharacterEncoding() == null) {
+                request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            }
+
+            Map<String, List<?>> argumentMap = new HashMap<>();
+
+            var contentType = map(request.getContentType(), String::toLowerCase);
+
+            var multipart = contentType != null && contentType.startsWith(MULTIPART_FORM_DATA);
+
+            if (multipart && isStreaming(handlers)) {
+                try {
+                    readStreamingArguments(request, argumentMap);
+                } catch (IllegalArgumentException | UncheckedIOException exception) {
+                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+
+                    reportError(response, exception);
+
+                    return;
+                }
+            } else {
+                var parameterNames = request.getParameterNames();
+
+                while (parameterNames.hasMoreElements()) {
+                    var name = parameterNames.nextElement();
+
+                    argumentMap.put(name, Arrays.asList(request.getParameterValues(name)));
+                }
+
+                if (multipart) {
+                    for (var part : request.getParts()) {
+                        var submittedFileName = part.getSubmittedFileName();
+
+                        if (submittedFileName == null || submittedFileName.isEmpty()) {
+                            continue;
+                        }
+
+                        var name = part.getName();
+
+                        var values = (List<Part>)argumentMap.get(name);
+
+                        if (values == null) {
+                            values = new ArrayList<>();
+
+                            argumentMap.put(name, values);
+                        }
+
+                        values.add(part);
+                    }
+                }
+            }
+
+            var empty = contentType == null
+                || contentType.startsWith(APPLICATION_X_WWW_FORM_URLENCODED)
+                || multipart;
+
+            var handler = getHandler(handlers, keyCount, argumentMap.keySet(), empty);
+
+            if (handler == null) {
+                response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+                return;
+            }
+
+            if (serverTiming != null) {
+                serverTiming.decode = System.nanoTime() - start - serverTiming.routing;
+            }
+
+            detached = invoke(request, response, handler, keys, keyCount, argumentMap, empty, start, event);
+        } finally {
+            if (!detached) {
+                end(request, response, handlers[0], start, event);
+            }
+        }
+    }
+
+    private boolean invoke(HttpServletRequest request, HttpServletResponse response, Handler handler,
+        String[] keys, int keyCount, Map<String, List<?>> argumentMap, boolean empty, long start, InvokeEvent event) throws ServletException, IOException {
+        var metrics = handler.metrics;
+
+        var serverTiming = getServerTiming(request);
+        var resourceUsage = getResourceUsage(request);
+
+        var coercionStart = System.nanoTime();
+        var decodeTime = (serverTiming == null) ? 0 : serverTiming.decode;
+
+        Object[] arguments;
+        try {
+            arguments = getArguments(handler, keys, keyCount, argumentMap, empty, request);
+        } catch (Exception exception) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+
+            reportError(response, exception);
+
+            return false;
+        } finally {
+            var end = System.nanoTime();
+
+            metrics.decodeTime.record(end - start);
+
+            if (serverTiming != null) {
+                serverTiming.coercion = end - coercionStart - (serverTiming.decode - decodeTime);
+            }
+
+            if (resourceUsage != null) {
+                resourceUsage.record(metrics.decodeCPUTime, metrics.decodeAllocation);
+            }
+        }
+
+        List<?> cacheKey = null;
+
+        if (handler.responseCache != null) {
+            cacheKey = getCacheKey(request);
+
+            var entry = handler.responseCache.get(cacheKey);
+
+            var load = (entry == null) ? handler.responseCache.load(cacheKey) : null;
+
+            if (load != null) {
+                try {
+                    entry = handler.responseCache.await(load);
+                } catch (ExecutionException exception) {
+                    handleException(request, response, exception.getCause());
+
+                    return false;
+                } catch (TimeoutException exception) {
+                    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    response.setHeader("Retry-After", "1");
+
+                    return false;
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+
+                    throw new ServletException(exception);
+                }
+
+                // If the first request did not produce a result that can be shared, invoke the method directly
+                cacheKey = null;
+            }
+
+            if (entry != null) {
+                var encodeStart = System.nanoTime();
+
+                if (resourceUsage != null) {
+                    resourceUsage.mark();
+                }
+
+                writeResponse(request, response, handler, entry);
+
+                metrics.encodeTime.record(System.nanoTime() - encodeStart);
+
+                if (resourceUsage != null) {
+                    resourceUsage.record(metrics.encodeCPUTime, metrics.encodeAllocation);
+                }
+
+                return false;
+            }
+        } else if (handler.requestCoalescer != null) {
+            cacheKey = getCacheKey(request);
+
+            var flight = handler.requestCoalescer.join(cacheKey);
+
+            if (flight != null) {
+                cacheKey = null;
+
+                ResponseCache.Entry entry;
+                try {
+                    entry = handler.requestCoalescer.await(flight);
+                } catch (ExecutionException exception) {
+                    handleException(request, response, exception.getCause());
+
+                    return false;
+                } catch (TimeoutException exception) {
+                    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    response.setHeader("Retry-After", "1");
+
+                    return false;
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+
+                    throw new ServletException(exception);
+                }
+
+                // If the first request did not produce a result that can be shared, invoke the method directly
+                if (entry != null) {
+                    var encodeStart = System.nanoTime();
+
+                    if (resourceUsage != null) {
+                        resourceUsage.mark();
+                    }
+
+                    writeResponse(request, response, handler, entry);
+
+                    metrics.encodeTime.record(System.nanoTime() - encodeStart);
+
+                    if (resourceUsage != null) {
+                        resourceUsage.record(metrics.encodeCPUTime, metrics.encodeAllocation);
+                    }
+
+                    return false;
+                }
+            }
+        }
+
+        var leader = cacheKey != null;
+
+        try {
+            var transaction = WebService.transaction.get();
+
+            if (transaction != null && transaction.connection == null) {
+                transaction.readOnly = handler.readOnly;
+                transaction.serverTiming = serverTiming;
+            }
+
+            WebService.request.set(request);
+            WebService.response.set(response);
+
+            var handlerStart = System.nanoTime();
+
+            if (resourceUsage != null) {
+                resourceUsage.mark();
+            }
+
+            Object result;
+            try {
+                result = (Object)handler.invoker.invokeExact((Object)this, arguments);
+            } catch (Throwable cause) {
+                recordHandlerTime(handler, serverTiming, System.nanoTime() - handlerStart);
+
+                if (resourceUsage != null) {
+                    resourceUsage.record(metrics.handlerCPUTime, metrics.handlerAllocation);
+                }
+
+                fail(handler, cacheKey, cause);
+
+                handleException(request, response, cause);
+
+                return false;
+            } finally {
+                WebService.request.remove();
+                WebService.response.remove();
+            }
+
+            // Work performed on other threads (for example, by asynchronous handlers) is not included
+            if (resourceUsage != null) {
+                resourceUsage.record(metrics.handlerCPUTime, metrics.handlerAllocation);
+            }
+
+            if (result instanceof CompletionStage<?> stage) {
+                if (request.isAsyncSupported() && !request.isAsyncStarted()) {
+                    handleResultAsync(request, response, handler, stage, cacheKey, start, handlerStart, event);
+
+                    leader = false;
+
+                    return true;
+                }
+
+                try {
+                    result = stage.toCompletableFuture().join();
+                } catch (CompletionException | CancellationException exception) {
+                    recordHandlerTime(handler, serverTiming, System.nanoTime() - handlerStart);
+
+                    var cause = unwrap(exception);
+
+                    fail(handler, cacheKey, cause);
+
+                    handleException(request, response, cause);
+
+                    return false;
+                }
+            }
+
+            var encodeStart = System.nanoTime();
+
+            recordHandlerTime(handler, serverTiming, encodeStart - handlerStart);
+
+            if (resourceUsage != null) {
+                resourceUsage.mark();
+            }
+
+            handleResult(request, response, handler, result, cacheKey);
+
+            metrics.encodeTime.record(System.nanoTime() - encodeStart);
+
+            if (resourceUsage != null) {
+                resourceUsage.record(metrics.encodeCPUTime, metrics.encodeAllocation);
+            }
+
+            return false;
+        } finally {
+            if (leader) {
+                release(handler, cacheKey);
+            }
+        }
+    }
+
+    private static void fail(Handler handler, List<?> cacheKey, Throwable cause) {
+        if (cacheKey == null) {
+            return;
+        }
+
+        if (handler.responseCache != null) {
+            handler.responseCache.fail(cacheKey, cause);
+        } else {
+            handler.requestCoalescer.fail(cacheKey, cause);
+        }
+    }
+
+    private static void release(Handler handler, List<?> cacheKey) {
+        if (handler.responseCache != null) {
+            handler.responseCache.release(cacheKey);
+        } else {
+            handler.requestCoalescer.release(cacheKey);
+        }
+    }
+
+    private boolean acquire(RateLimiter rateLimiter, HttpServletRequest request, HttpServletResponse response) {
+        var state = new long[2];
+
+        var acquired = rateLimiter.acquire(getRateLimitKey(request), state);
+
+        var reset = String.valueOf(TimeUnit.NANOSECONDS.toSeconds(state[RateLimiter.RESET] + 999_999_999));
+
+        response.setHeader("RateLimit-Limit", String.valueOf(rateLimiter.getLimit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(state[RateLimiter.REMAINING]));
+        response.setHeader("RateLimit-Reset", reset);
+
+        if (!acquired) {
+            response.setStatus(SC_TOO_MANY_REQUESTS);
+            response.setHeader("Retry-After", reset);
+        }
+
+        return acquired;
+    }
+
+    private static Priority.Level getPriority(Handler[] handlers) {
+        var priority = handlers[0].priority;
+
+        for (var i = 1; i < handlers.length; i++) {
+            if (handlers[i].priority.compareTo(priority) < 0) {
+                priority = handlers[i].priority;
+            }
+        }
+
+        return priority;
+    }
+
+    private static boolean isStreaming(Handler[] handlers) {
+        for (var i = 0; i < handlers.length; i++) {
+            if (handlers[i].streaming) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void readStreamingArguments(HttpServletRequest request, Map<String, List<?>> argumentMap) throws IOException {
+        var charset = Charset.forName(request.getCharacterEncoding());
+
+        var queryString = request.getQueryString();
+
+        if (queryString != null) {
+            var parameters = queryString.split("&");
+
+            for (var i = 0; i < parameters.length; i++) {
+                var parameter = parameters[i];
+
+                if (parameter.isEmpty()) {
+                    continue;
+                }
+
+                var j = parameter.indexOf('=');
+
+                if (j == -1) {
+                    addArgument(argumentMap, URLDecoder.decode(parameter, charset), "");
+                } else {
+                    addArgument(argumentMap, URLDecoder.decode(parameter.substring(0, j), charset), URLDecoder.decode(parameter.substring(j + 1), charset));
+                }
+            }
+        }
+
+        var multipartReader = MultipartReader.open(request);
+
+        // Leading fields are bound by name; remaining parts are delivered in arrival order via the iterator
+        StreamingPart part;
+        while ((part = multipartReader.peek()) != null && part.getSubmittedFileName() == null) {
+            multipartReader.next();
+
+            try (var inputStream = part.getInputStream()) {
+                addArgument(argumentMap, part.getName(), new String(inputStream.readAllBytes(), charset));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addArgument(Map<String, List<?>> argumentMap, String name, String value) {
+        var values = (List<String>)argumentMap.get(name);
+
+        if (values == null) {
+            values = new ArrayList<>();
+
+            argumentMap.put(name, values);
+        }
+
+        values.add(value);
+    }
+
+    private ServerTiming getServerTiming(HttpServletRequest request) {
+        return serverTimingEnabled ? ServerTiming.get(request) : null;
+    }
+
+    private ResourceUsage getResourceUsage(HttpServletRequest request) {
+        return resourceAccountingEnabled ? ResourceUsage.get(request) : null;
+    }
+
+    private static void recordHandlerTime(Handler handler, ServerTiming serverTiming, long handlerTime) {
+        handler.metrics.handlerTime.record(handlerTime);
+
+        if (serverTiming != null) {
+            serverTiming.handler = handlerTime;
+        }
+    }
+
+    private void end(HttpServletRequest request, HttpServletResponse response, Handler handler, long start, InvokeEvent event) {
+        var metrics = handler.metrics;
+
+        var status = response.getStatus();
+
+        metrics.end(status);
+
+        if (accessLog != null) {
+            logAccess(request, response, metrics, start);
+        }
+
+        if (handler.concurrencyLimiter != null) {
+            handler.concurrencyLimiter.release(metrics, System.nanoTime() - start);
+        }
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.method = metrics.method;
+            event.path = metrics.path;
+            event.status = status;
+
+            event.commit();
+        }
+    }
+
+    private void logAccess(HttpServletRequest request, HttpServletResponse response, EndpointMetrics metrics, long start) {
+        var bytes = (response instanceof CountingResponse countingResponse) ? countingResponse.getCount() : -1;
+
+        accessLog.log(metrics.method, metrics.path, response.getStatus(), bytes, System.nanoTime() - start,
+            map(request.getUserPrincipal(), Principal::getName));
+    }
+
+    private static List<?> getCacheKey(HttpServletRequest request) {
+        var parameters = new TreeMap<String, List<String>>();
+
+        for (var entry : request.getParameterMap().entrySet()) {
+            parameters.put(entry.getKey(), Arrays.asList(entry.getValue()));
+        }
+
+        return Arrays.asList(request.getPathInfo(), parameters, request.getHeader("Accept"));
+    }
+
+    private void handleResultAsync(HttpServletRequest request, HttpServletResponse response, Handler handler, CompletionStage<?> stage, List<?> cacheKey, long start, long handlerStart, InvokeEvent event) {
+        var transaction = WebService.transaction.get();
+
+        if (transaction != null) {
+            transaction.detached = true;
+        }
+
+        var asyncContext = request.startAsync();
+
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                // No-op
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                stage.toCompletableFuture().cancel(false);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                stage.toCompletableFuture().cancel(false);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // No-op
+            }
+        });
+
+        stage.whenComplete((result, cause) -> {
+            var metrics = handler.metrics;
+
+            try {
+                var encodeStart = System.nanoTime();
+
+                recordHandlerTime(handler, getServerTiming(request), encodeStart - handlerStart);
+
+                if (cause != null) {
+                    var exception = unwrap(cause);
+
+                    fail(handler, cacheKey, exception);
+
+                    handleException(request, response, exception);
+                } else {
+                    var resourceUsage = getResourceUsage(request);
+
+                    if (resourceUsage != null) {
+                        resourceUsage.mark();
+                    }
+
+                    handleResult(request, response, handler, result, cacheKey);
+
+                    metrics.encodeTime.record(System.nanoTime() - encodeStart);
+
+                    if (resourceUsage != null) {
+                        resourceUsage.record(metrics.encodeCPUTime, metrics.encodeAllocation);
+                    }
+                }
+
+                if (transaction != null) {
+                    transaction.end(isSuccessful(response.getStatus()));
+                }
+            } catch (Exception exception) {
+                log(exception.getMessage(), exception);
+            } finally {
+                if (cacheKey != null) {
+                    release(handler, cacheKey);
+                }
+
+                try {
+                    if (transaction != null) {
+                        transaction.close();
+                    }
+                } catch (SQLException exception) {
+                    log(exception.getMessage(), exception);
+                }
+
+                end(request, response, handler, start, event);
 
-                var jsonEncoder = new JSONEncoder();
+                asyncContext.complete();
+            }
+        });
+    }
 
-                jsonEncoder.write(serviceDescriptor, response.getOutputStream());
-            } else {
-                response.setContentType(String.format(CONTENT_TYPE_FORMAT, TEXT_HTML, StandardCharsets.UTF_8));
+    private static boolean isSuccessful(int status) {
+        return status / 100 == 2 || status == HttpServletResponse.SC_NOT_MODIFIED;
+    }
 
-                var templateEncoder = new TemplateEncoder(WebService.class, "api.html");
+    private static Throwable unwrap(Throwable exception) {
+        if (exception instanceof CompletionException && exception.getCause() != null) {
+            return exception.getCause();
+        } else {
+            return exception;
+        }
+    }
 
-                var locale = request.getLocale();
+    private void handleException(HttpServletRequest request, HttpServletResponse response, Throwable cause) throws IOException {
+        if (response.isCommitted()) {
+            log(cause.getMessage(), cause);
 
-                templateEncoder.setResourceBundle(ResourceBundle.getBundle(WebService.class.getName(), locale));
-                templateEncoder.setLocale(locale);
+            return;
+        }
 
-                templateEncoder.write(mapOf(
-                    entry("language", locale.getLanguage()),
-                    entry("contextPath", request.getContextPath()),
-                    entry("service", serviceDescriptor)
-                ), response.getOutputStream());
-            }
+        int status;
+        if (cause instanceof IllegalArgumentException || cause instanceof UnsupportedOperationException) {
+            status = HttpServletResponse.SC_FORBIDDEN;
+        } else if (cause instanceof NoSuchElementException) {
+            status = HttpServletResponse.SC_NOT_FOUND;
+        } else if (cause instanceof IllegalStateException) {
+            status = HttpServletResponse.SC_CONFLICT;
+        } else if (cause instanceof SQLTimeoutException || cause.getCause() instanceof SQLTimeoutException) {
+            status = HttpServletResponse.SC_GATEWAY_TIMEOUT;
         } else {
-            invoke(request, response);
+            status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
         }
-    }
 
-    @SuppressWarnings("unchecked")
-    private void invoke(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        var resource = root;
+        response.setStatus(status);
 
-        List<String> keys = new ArrayList<>();
+        var serverTiming = getServerTiming(request);
 
-        var pathInfo = request.getPathInfo();
+        if (serverTiming != null) {
+            serverTiming.setHeader(response);
+        }
 
-        if (pathInfo != null) {
-            var components = pathInfo.split("/");
+        reportError(response, cause);
+    }
 
-            for (var i = 1; i < components.length; i++) {
-                var component = components[i];
+    private void handleResult(HttpServletRequest request, HttpServletResponse response, Handler handler, Object result, List<?> cacheKey) {
+        try {
+            if (response.isCommitted() || response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+                return;
+            }
 
-                var child = resource.resources.get(component);
+            if (result != null) {
+                response.setStatus(handler.status);
 
-                if (child == null) {
-                    child = resource.resources.get("?");
+                var contentEncoding = getContentEncoding(request, response, handler);
 
-                    if (child == null) {
-                        response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
-                        return;
+                try {
+                    if (handler.get && (handler.conditional || cacheKey != null)
+                        && !(result instanceof BaseStream<?, ?>) && !response.containsHeader(ETAG)) {
+                        encodeConditionalResult(request, response, handler, result, contentEncoding, cacheKey);
+                    } else {
+                        var serverTiming = getServerTiming(request);
+
+                        if (serverTiming != null) {
+                            serverTiming.setTrailer(response, System.nanoTime());
+                        }
+
+                        encodeResult(request, response, result, contentEncoding);
                     }
+                } catch (Exception exception) {
+                    log(exception.getMessage(), exception);
+                }
+            } else {
+                if (handler.voidReturnType) {
+                    response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+                } else {
+                    response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                }
 
-                    keys.add(component);
+                if (cacheKey != null && handler.requestCoalescer != null) {
+                    handler.requestCoalescer.complete(cacheKey, new ResponseCache.Entry(response.getStatus(), null, null, null));
                 }
 
-                resource = child;
+                var serverTiming = getServerTiming(request);
+
+                if (serverTiming != null) {
+                    serverTiming.setHeader(response);
+                }
+            }
+        } finally {
+            if (result instanceof BaseStream<?, ?> stream) {
+                stream.close();
             }
         }
+    }
 
-        var handlerList = resource.handlerMap.get(request.getMethod().toUpperCase());
+    private String getContentEncoding(HttpServletRequest request, HttpServletResponse response, Handler handler) {
+        if (handler.uncompressed) {
+            return null;
+        }
 
-        if (handlerList == null) {
-            response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        response.addHeader("Vary", "Accept-Encoding");
+
+        return CompressedResponse.getContentEncoding(request.getHeader("Accept-Encoding"));
+    }
+
+    private void encodeResult(HttpServletRequest request, HttpServletResponse response, Object result, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            encodeResult(request, response, result);
             return;
         }
 
-        if (request.getCharacterEncoding() == null) {
-            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        var threshold = (result instanceof BaseStream<?, ?>) ? 0 : getCompressionThreshold();
+
+        var compressedResponse = new CompressedResponse(response, contentEncoding, threshold);
+
+        try {
+            encodeResult(request, compressedResponse, result);
+        } finally {
+            compressedResponse.finish();
         }
+    }
 
-        Map<String, List<?>> argumentMap = new HashMap<>();
+    private void encodeConditionalResult(HttpServletRequest request, HttpServletResponse response, Handler handler, Object result, String contentEncoding, List<?> cacheKey) throws IOException {
+        var encodeStart = System.nanoTime();
 
-        var parameterNames = request.getParameterNames();
+        var serverTiming = getServerTiming(request);
 
-        while (parameterNames.hasMoreElements()) {
-            var name = parameterNames.nextElement();
+        // If the result is too large to buffer, timings are reported in a trailer as for other unbuffered responses
+        var bufferedResponse = new BufferedResponse(response, contentEncoding, getMaximumBufferSize(),
+            (serverTiming == null) ? null : () -> serverTiming.setTrailer(response, encodeStart));
 
-            argumentMap.put(name, Arrays.asList(request.getParameterValues(name)));
-        }
+        try {
+            encodeResult(request, bufferedResponse, result);
+        } catch (IOException | RuntimeException exception) {
+            // Write any partial output so the client can detect the failure, as with an unbuffered response
+            if (!bufferedResponse.isOverflowed()) {
+                response.getOutputStream().write(bufferedResponse.getBody());
+            }
 
-        var contentType = map(request.getContentType(), String::toLowerCase);
+            throw exception;
+        } finally {
+            bufferedResponse.finish();
+        }
 
-        if (contentType != null && contentType.startsWith(MULTIPART_FORM_DATA)) {
-            for (var part : request.getParts()) {
-                var submittedFileName = part.getSubmittedFileName();
+        // Content that exceeds the buffer limit has already been written, without an entity tag
+        if (bufferedResponse.isOverflowed()) {
+            return;
+        }
 
-                if (submittedFileName == null || submittedFileName.isEmpty()) {
-                    continue;
-                }
+        var body = bufferedResponse.getBody();
+        var digest = getDigest(body);
 
-                var name = part.getName();
+        if (serverTiming != null) {
+            serverTiming.encode = System.nanoTime() - encodeStart;
 
-                var values = (List<Part>)argumentMap.get(name);
+            serverTiming.setHeader(response);
+        }
 
-                if (values == null) {
-                    values = new ArrayList<>();
+        var status = response.getStatus();
 
-                    argumentMap.put(name, values);
-                }
+        if (cacheKey != null) {
+            var entry = new ResponseCache.Entry(status, response.getContentType(), body, digest);
 
-                values.add(part);
+            if (handler.requestCoalescer != null) {
+                handler.requestCoalescer.complete(cacheKey, entry);
+            } else if (status / 100 == 2) {
+                handler.responseCache.put(cacheKey, entry);
             }
         }
 
-        var empty = contentType == null
-            || contentType.startsWith(APPLICATION_X_WWW_FORM_URLENCODED)
-            || contentType.startsWith(MULTIPART_FORM_DATA);
+        writeBody(request, response, body, digest, contentEncoding);
+    }
+
+    private void writeResponse(HttpServletRequest request, HttpServletResponse response, Handler handler, ResponseCache.Entry entry) throws IOException {
+        response.setStatus(entry.status);
 
-        var handler = getHandler(handlerList, keys.size(), argumentMap.keySet(), empty);
+        var serverTiming = getServerTiming(request);
 
-        if (handler == null) {
-            response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        if (serverTiming != null) {
+            serverTiming.setHeader(response);
+        }
+
+        if (entry.body == null) {
             return;
         }
 
-        Object[] arguments;
-        try {
-            arguments = getArguments(handler.getParameters(), keys, argumentMap, empty, request);
-        } catch (Exception exception) {
-            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+        if (entry.contentType != null) {
+            response.setContentType(entry.contentType);
+        }
 
-            reportError(response, exception);
+        writeBody(request, response, entry.body, entry.digest, getContentEncoding(request, response, handler));
+    }
 
-            return;
+    private void writeBody(HttpServletRequest request, HttpServletResponse response, byte[] body, String digest, String contentEncoding) throws IOException {
+        if (body.length < getCompressionThreshold()) {
+            contentEncoding = null;
         }
 
-        WebService.request.set(request);
-        WebService.response.set(response);
+        var eTag = getETag(digest, contentEncoding);
 
-        Object result;
-        try {
-            result = handler.invoke(this, arguments);
-        } catch (IllegalAccessException | InvocationTargetException exception) {
-            var cause = exception.getCause();
+        response.setHeader(ETAG, eTag);
 
-            if (response.isCommitted()) {
-                if (cause != null) {
-                    log(cause.getMessage(), cause);
-                }
+        if (isMatch(request.getHeader("If-None-Match"), eTag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
 
-                return;
-            }
+        if (contentEncoding == null) {
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        } else {
+            var compressedResponse = new CompressedResponse(response, contentEncoding, 0);
 
-            int status;
-            if (cause instanceof IllegalArgumentException || cause instanceof UnsupportedOperationException) {
-                status = HttpServletResponse.SC_FORBIDDEN;
-            } else if (cause instanceof NoSuchElementException) {
-                status = HttpServletResponse.SC_NOT_FOUND;
-            } else if (cause instanceof IllegalStateException) {
-                status = HttpServletResponse.SC_CONFLICT;
-            } else {
-                status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            try {
+                compressedResponse.getOutputStream().write(body);
+            } finally {
+                compressedResponse.finish();
             }
+        }
+    }
+
+    static String getDigest(byte[] value) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        }
 
-            response.setStatus(status);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(messageDigest.digest(value), 16));
+    }
 
-            reportError(response, cause);
+    static String getETag(String digest, String contentEncoding) {
+        if (contentEncoding == null) {
+            return String.format("\"%s\"", digest);
+        } else {
+            return String.format("\"%s-%s\"", digest, contentEncoding);
+        }
+    }
 
-            return;
-        } finally {
-            WebService.request.remove();
-            WebService.response.remove();
+    static boolean isMatch(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
         }
 
-        if (response.isCommitted()) {
-            return;
+        if (eTag.startsWith("W/")) {
+            eTag = eTag.substring(2);
         }
 
-        if (result != null) {
-            if (handler.getAnnotation(Accepts.class) != null) {
-                response.setStatus(HttpServletResponse.SC_ACCEPTED);
-            } else if (handler.getAnnotation(Creates.class) != null) {
-                response.setStatus(HttpServletResponse.SC_CREATED);
-            } else {
-                response.setStatus(HttpServletResponse.SC_OK);
-            }
+        for (var value : ifNoneMatch.split(",")) {
+            value = value.trim();
 
-            try {
-                encodeResult(request, response, result);
-            } catch (Exception exception) {
-                log(exception.getMessage(), exception);
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
             }
-        } else {
-            var returnType = handler.getReturnType();
 
-            if (returnType == Void.TYPE || returnType == Void.class) {
-                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
-            } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
             }
         }
+
+        return false;
     }
 
-    private static Method getHandler(List<Method> handlerList, int keyCount, Set<String> argumentNames, boolean empty) {
-        for (var handler : handlerList) {
-            var parameters = handler.getParameters();
+    private static Handler getHandler(Handler[] handlers, int keyCount, Set<String> argumentNames, boolean empty) {
+        for (var handler : handlers) {
+            var names = handler.names;
 
-            var n = parameters.length;
+            var n = names.length;
 
             if (!empty) {
                 n--;
@@ -1137,11 +2828,7 @@ public abstract class WebService extends HttpServlet {
             var argumentCount = argumentNames.size();
 
             for (var i = keyCount; i < n; i++) {
-                var parameter = parameters[i];
-
-                var name = coalesce(map(parameter.getAnnotation(Name.class), Name::value), parameter.getName());
-
-                if (argumentNames.contains(name) && ++c == argumentCount) {
+                if (argumentNames.contains(names[i]) && ++c == argumentCount) {
                     return handler;
                 }
             }
@@ -1150,8 +2837,10 @@ public abstract class WebService extends HttpServlet {
         return null;
     }
 
-    private Object[] getArguments(Parameter[] parameters, List<String> keys, Map<String, List<?>> argumentMap, boolean empty, HttpServletRequest request) {
-        var n = parameters.length;
+    private Object[] getArguments(Handler handler, String[] keys, int keyCount, Map<String, List<?>> argumentMap, boolean empty, HttpServletRequest request) {
+        var names = handler.names;
+
+        var n = names.length;
 
         var arguments = new Object[n];
 
@@ -1159,86 +2848,35 @@ public abstract class WebService extends HttpServlet {
             n--;
         }
 
-        var keyCount = keys.size();
-
         for (var i = 0; i < n; i++) {
-            var parameter = parameters[i];
-
             if (i < keyCount) {
-                arguments[i] = BeanAdapter.coerce(keys.get(i), parameter.getType());
+                arguments[i] = BeanAdapter.coerce(keys[i], handler.types[i]);
+            } else if (handler.types[i] == Iterator.class) {
+                arguments[i] = coalesce(MultipartReader.get(request), listOf().iterator());
             } else {
-                var name = coalesce(map(parameter.getAnnotation(Name.class), Name::value), parameter.getName());
-                var type = parameter.getType();
-
-                var values = argumentMap.get(name);
-
-                Object argument;
-                if (type.isArray()) {
-                    var componentType = type.getComponentType();
-
-                    if (values != null) {
-                        argument = Array.newInstance(componentType, values.size());
-
-                        var j = 0;
-
-                        for (var value : values) {
-                            Array.set(argument, j++, BeanAdapter.coerce(value, componentType));
-                        }
-                    } else {
-                        argument = Array.newInstance(componentType, 0);
-                    }
-                } else if (Collection.class.isAssignableFrom(type)) {
-                    var elementType = ((ParameterizedType)parameter.getParameterizedType()).getActualTypeArguments()[0];
-
-                    if (elementType instanceof Class<?>) {
-                        if (type == List.class) {
-                            if (values == null) {
-                                argument = listOf();
-                            } else {
-                                argument = BeanAdapter.coerceList(values, (Class<?>)elementType);
-                            }
-                        } else if (type == Set.class) {
-                            if (values == null) {
-                                argument = setOf();
-                            } else {
-                                argument = BeanAdapter.coerceSet(values, (Class<?>)elementType);
-                            }
-                        } else {
-                            throw new UnsupportedOperationException("Unsupported collection type.");
-                        }
-                    } else {
-                        throw new UnsupportedOperationException("Unsupported element type.");
-                    }
-                } else {
-                    Object value;
-                    if (values != null) {
-                        value = values.get(values.size() - 1);
-                    } else {
-                        value = null;
-                    }
-
-                    if (parameter.getAnnotation(Required.class) != null && value == null) {
-                        throw new IllegalArgumentException("Required argument is not defined.");
-                    }
-
-                    argument = BeanAdapter.coerce(value, type);
-                }
-
-                arguments[i] = argument;
+                arguments[i] = handler.coercers[i].apply(argumentMap.get(names[i]));
             }
         }
 
-        if (n < parameters.length) {
-            var type = parameters[n].getParameterizedType();
+        if (n < names.length) {
+            var type = handler.bodyType;
 
             Object body;
             if (type == Void.class) {
                 body = null;
             } else {
+                var serverTiming = getServerTiming(request);
+
+                var decodeStart = System.nanoTime();
+
                 try {
                     body = decodeBody(request, type);
                 } catch (IOException exception) {
                     throw new UnsupportedOperationException(exception);
+                } finally {
+                    if (serverTiming != null) {
+                        serverTiming.decode += System.nanoTime() - decodeStart;
+                    }
                 }
             }
 
@@ -1249,13 +2887,30 @@ public abstract class WebService extends HttpServlet {
     }
 
     /**
-     * Returns the database connection.
+     * Returns the database connection. If no connection has been associated
+     * with the current request, one is opened via {@link #openConnection()}.
      *
      * @return
      * The database connection.
      */
     protected static Connection getConnection() {
-        return connection.get();
+        var connection = WebService.connection.get();
+
+        if (connection == null) {
+            var transaction = WebService.transaction.get();
+
+            if (transaction != null && transaction.connection == null) {
+                try {
+                    connection = transaction.open();
+                } catch (SQLException exception) {
+                    throw new RuntimeException(exception);
+                }
+
+                setConnection(connection);
+            }
+        }
+
+        return connection;
     }
 
     /**
@@ -1293,7 +2948,72 @@ public abstract class WebService extends HttpServlet {
     }
 
     /**
-     * Decodes the body of a service request.
+     * Determines if the requested resource has not been modified, allowing a
+     * {@code GET} method to skip generating a result that the caller already
+     * has. If the version is a {@link Date} or {@link Instant}, it is returned
+     * in the {@code Last-Modified} header and compared to the request's
+     * {@code If-Modified-Since} header. Otherwise, a weak entity tag derived
+     * from the version's string representation is returned in the
+     * {@code ETag} header and compared to the request's {@code If-None-Match}
+     * header. If the resource has not been modified, the response status is
+     * set to 304 (not modified), and the method's return value is ignored.
+     *
+     * @param version
+     * The current version of the resource.
+     *
+     * @return
+     * {@code true} if the resource has not been modified; {@code false},
+     * otherwise.
+     */
+    protected static boolean isNotModified(Object version) {
+        if (version == null) {
+            throw new IllegalArgumentException();
+        }
+
+        var request = getRequest();
+        var response = getResponse();
+
+        if (request == null || response == null) {
+            throw new IllegalStateException();
+        }
+
+        if (version instanceof Date date) {
+            version = date.toInstant();
+        }
+
+        boolean notModified;
+        if (version instanceof Instant instant) {
+            var lastModified = instant.truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+
+            response.setDateHeader("Last-Modified", lastModified);
+
+            long ifModifiedSince;
+            try {
+                ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            } catch (IllegalArgumentException exception) {
+                ifModifiedSince = -1;
+            }
+
+            notModified = request.getHeader("If-None-Match") == null && ifModifiedSince >= lastModified;
+        } else {
+            var eTag = "W/" + getETag(getDigest(version.toString().getBytes(StandardCharsets.UTF_8)), null);
+
+            response.setHeader(ETAG, eTag);
+
+            notModified = isMatch(request.getHeader("If-None-Match"), eTag);
+        }
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+
+        return notModified;
+    }
+
+    /**
+     * Decodes the body of a service request. {@link Iterable} and
+     * {@link Stream} bodies are decoded lazily, one element at a time, as
+     * they are traversed by the service method.
      *
      * @param request
      * The servlet request.
@@ -1308,9 +3028,73 @@ public abstract class WebService extends HttpServlet {
      * If an error occurs while decoding the content.
      */
     protected Object decodeBody(HttpServletRequest request, Type type) throws IOException {
+        if (type instanceof ParameterizedType parameterizedType) {
+            var rawType = parameterizedType.getRawType();
+
+            if (rawType == Iterable.class || rawType == Stream.class) {
+                var jsonDecoder = new JSONDecoder(parameterizedType.getActualTypeArguments()[0]);
+
+                var elements = jsonDecoder.iterate(getInputStream(request));
+
+                // Malformed elements are reported as they are reached, so they are mapped as for eager decoding
+                var iterator = new Iterator<Object>() {
+                    @Override
+                    public boolean hasNext() {
+                        try {
+                            return elements.hasNext();
+                        } catch (UncheckedIOException exception) {
+                            throw new UnsupportedOperationException(exception.getCause());
+                        }
+                    }
+
+                    @Override
+                    public Object next() {
+                        try {
+                            return elements.next();
+                        } catch (UncheckedIOException exception) {
+                            throw new UnsupportedOperationException(exception.getCause());
+                        }
+                    }
+                };
+
+                if (rawType == Iterable.class) {
+                    return (Iterable<Object>)() -> iterator;
+                } else {
+                    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+                }
+            }
+        }
+
         var jsonDecoder = new JSONDecoder(type);
 
-        return jsonDecoder.read(request.getInputStream());
+        return jsonDecoder.read(getInputStream(request));
+    }
+
+    /**
+     * Returns the request body as an input stream. Content encoded using
+     * {@code gzip} or {@code deflate} is decompressed automatically.
+     *
+     * @param request
+     * The servlet request.
+     *
+     * @return
+     * The request body.
+     *
+     * @throws IOException
+     * If an error occurs while opening the stream.
+     */
+    protected static InputStream getInputStream(HttpServletRequest request) throws IOException {
+        var contentEncoding = map(request.getHeader("Content-Encoding"), value -> value.trim().toLowerCase());
+
+        if (contentEncoding == null || contentEncoding.equals("identity")) {
+            return request.getInputStream();
+        }
+
+        return switch (contentEncoding) {
+            case CompressedResponse.GZIP, "x-gzip" -> new GZIPInputStream(request.getInputStream());
+            case CompressedResponse.DEFLATE -> new InflaterInputStream(request.getInputStream());
+            default -> throw new UnsupportedOperationException("Unsupported content encoding.");
+        };
     }
 
     /**
@@ -1333,6 +3117,11 @@ public abstract class WebService extends HttpServlet {
 
         var jsonEncoder = new JSONEncoder(isCompact());
 
+        if (result instanceof BaseStream<?, ?>) {
+            jsonEncoder.setFlushCount(getFlushCount());
+            jsonEncoder.setFlushInterval(getFlushInterval());
+        }
+
         jsonEncoder.write(result, response.getOutputStream());
     }
 
@@ -1345,6 +3134,55 @@ public abstract class WebService extends HttpServlet {
         return false;
     }
 
+    /**
+     * Returns the minimum size of a response that will be compressed. Results
+     * are compressed using {@code gzip} or {@code deflate} when permitted by
+     * the request's {@code Accept-Encoding} header, unless the service method
+     * is annotated with {@link Uncompressed}. Stream results are always
+     * compressed so that they can be flushed incrementally.
+     *
+     * @return
+     * The compression threshold, in bytes.
+     */
+    protected int getCompressionThreshold() {
+        return 1024;
+    }
+
+    /**
+     * Returns the maximum size of a result that will be buffered in order to
+     * generate an entity tag or to cache the response. Larger results are
+     * written as they are encoded, without an entity tag, and are not
+     * cached.
+     *
+     * @return
+     * The maximum buffer size, in bytes.
+     */
+    protected int getMaximumBufferSize() {
+        return 1024 * 1024;
+    }
+
+    /**
+     * Returns the number of stream elements to write before flushing the
+     * response.
+     *
+     * @return
+     * The flush count, or 0 if the response should not be flushed by count.
+     */
+    protected int getFlushCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the maximum number of milliseconds to wait between response
+     * flushes while writing stream elements.
+     *
+     * @return
+     * The flush interval, or 0 if the response should not be flushed by time.
+     */
+    protected int getFlushInterval() {
+        return 1000;
+    }
+
     /**
      * Reports an error.
      *
@@ -1367,16 +3205,44 @@ public abstract class WebService extends HttpServlet {
     }
 
     /**
-     * Returns the service descriptor.
+     * Returns the service descriptor. The descriptor is created when it is
+     * first requested.
      *
      * @return
      * The service descriptor.
      */
-    public ServiceDescriptor getServiceDescriptor() {
+    public synchronized ServiceDescriptor getServiceDescriptor() {
+        if (serviceDescriptor == null) {
+            var serviceDescriptor = new ServiceDescriptor(path, getClass());
+
+            describeResource(serviceDescriptor, path, resource);
+
+            this.serviceDescriptor = serviceDescriptor;
+        }
+
         return serviceDescriptor;
     }
 
-    private void describeResource(String path, Resource resource) {
+    private void measureResource(String path, Resource resource, int concurrencyLimit) {
+        for (var entry : resource.handlerMap.entrySet()) {
+            var metrics = new EndpointMetrics(entry.getKey(), path, resourceAccountingEnabled);
+
+            endpointMetrics.add(metrics);
+
+            var concurrencyLimiter = (concurrencyLimit > 0) ? new ConcurrencyLimiter(concurrencyLimit) : null;
+
+            for (var handler : entry.getValue()) {
+                handler.metrics = metrics;
+                handler.concurrencyLimiter = concurrencyLimiter;
+            }
+        }
+
+        for (var entry : resource.resources.entrySet()) {
+            measureResource(String.format("%s/%s", path, entry.getKey()), entry.getValue(), concurrencyLimit);
+        }
+    }
+
+    private void describeResource(ServiceDescriptor serviceDescriptor, String path, Resource resource) {
         if (!resource.handlerMap.isEmpty()) {
             var endpoint = new EndpointDescriptor(path);
 
@@ -1391,12 +3257,14 @@ public abstract class WebService extends HttpServlet {
             }
 
             for (var entry : resource.handlerMap.entrySet()) {
-                for (var handler : entry.getValue()) {
+                for (var value : entry.getValue()) {
+                    var handler = value.method;
+
                     var operation = new OperationDescriptor(entry.getKey().toUpperCase(), handler);
 
                     operation.deprecated |= serviceDescriptor.deprecated;
 
-                    operation.produces = describeGenericType(handler.getGenericReturnType());
+                    operation.produces = describeGenericType(serviceDescriptor, handler.getGenericReturnType());
 
                     var parameters = handler.getParameters();
 
@@ -1413,7 +3281,7 @@ public abstract class WebService extends HttpServlet {
 
                         var parameterDescriptor = new VariableDescriptor(parameter);
 
-                        parameterDescriptor.type = describeGenericType(parameter.getParameterizedType());
+                        parameterDescriptor.type = describeGenericType(serviceDescriptor, parameter.getParameterizedType());
 
                         if (i < keyCount) {
                             parameterDescriptor.required = true;
@@ -1438,21 +3306,23 @@ public abstract class WebService extends HttpServlet {
         }
 
         for (var entry : resource.resources.entrySet()) {
-            describeResource(String.format("%s/%s", path, entry.getKey()), entry.getValue());
+            describeResource(serviceDescriptor, String.format("%s/%s", path, entry.getKey()), entry.getValue());
         }
     }
 
-    private TypeDescriptor describeGenericType(Type type) {
+    private TypeDescriptor describeGenericType(ServiceDescriptor serviceDescriptor, Type type) {
         if (type instanceof Class<?>) {
-            return describeRawType((Class<?>)type);
+            return describeRawType(serviceDescriptor, (Class<?>)type);
         } else if (type instanceof ParameterizedType parameterizedType) {
             var rawType = (Class<?>)parameterizedType.getRawType();
             var actualTypeArguments = parameterizedType.getActualTypeArguments();
 
-            if (Iterable.class.isAssignableFrom(rawType)) {
-                return new IterableTypeDescriptor(describeGenericType(actualTypeArguments[0]));
+            if (CompletionStage.class.isAssignableFrom(rawType)) {
+                return describeGenericType(serviceDescriptor, actualTypeArguments[0]);
+            } else if (Iterable.class.isAssignableFrom(rawType) || Iterator.class.isAssignableFrom(rawType) || BaseStream.class.isAssignableFrom(rawType)) {
+                return new IterableTypeDescriptor(describeGenericType(serviceDescriptor, actualTypeArguments[0]));
             } else if (Map.class.isAssignableFrom(rawType)) {
-                return new MapTypeDescriptor(describeGenericType(actualTypeArguments[0]), describeGenericType(actualTypeArguments[1]));
+                return new MapTypeDescriptor(describeGenericType(serviceDescriptor, actualTypeArguments[0]), describeGenericType(serviceDescriptor, actualTypeArguments[1]));
             } else {
                 throw new IllegalArgumentException("Unsupported parameterized type.");
             }
@@ -1461,7 +3331,7 @@ public abstract class WebService extends HttpServlet {
         }
     }
 
-    private TypeDescriptor describeRawType(Class<?> type) {
+    private TypeDescriptor describeRawType(ServiceDescriptor serviceDescriptor, Class<?> type) {
         if (type.isPrimitive()
             || type == Object.class
             || type == Boolean.class
@@ -1480,12 +3350,14 @@ public abstract class WebService extends HttpServlet {
             || type == Path.class
             || type == Part.class) {
             return new TypeDescriptor(type, true);
+        } else if (CompletionStage.class.isAssignableFrom(type)) {
+            return describeRawType(serviceDescriptor, Object.class);
         } else if (type.isArray()) {
-            return new IterableTypeDescriptor(describeRawType(type.getComponentType()));
-        } else if (Iterable.class.isAssignableFrom(type)) {
-            return new IterableTypeDescriptor(describeRawType(Object.class));
+            return new IterableTypeDescriptor(describeRawType(serviceDescriptor, type.getComponentType()));
+        } else if (Iterable.class.isAssignableFrom(type) || Iterator.class.isAssignableFrom(type) || BaseStream.class.isAssignableFrom(type)) {
+            return new IterableTypeDescriptor(describeRawType(serviceDescriptor, Object.class));
         } else if (Map.class.isAssignableFrom(type)) {
-            return new MapTypeDescriptor(describeRawType(Object.class), describeRawType(Object.class));
+            return new MapTypeDescriptor(describeRawType(serviceDescriptor, Object.class), describeRawType(serviceDescriptor, Object.class));
         } else {
             if (type.isEnum()) {
                 var enumeration = serviceDescriptor.enumerations.get(type);
@@ -1519,13 +3391,13 @@ public abstract class WebService extends HttpServlet {
                         var interfaces = type.getInterfaces();
 
                         for (var i = 0; i < interfaces.length; i++) {
-                            structure.supertypes.add(describeRawType(interfaces[i]));
+                            structure.supertypes.add(describeRawType(serviceDescriptor, interfaces[i]));
                         }
                     } else {
                         var baseType = type.getSuperclass();
 
                         if (baseType != Object.class && baseType != Record.class) {
-                            structure.supertypes.add(describeRawType(baseType));
+                            structure.supertypes.add(describeRawType(serviceDescriptor, baseType));
                         }
                     }
 
@@ -1538,7 +3410,7 @@ public abstract class WebService extends HttpServlet {
 
                         var propertyDescriptor = new VariableDescriptor(entry.getKey(), accessor);
 
-                        propertyDescriptor.type = describeGenericType(accessor.getGenericReturnType());
+                        propertyDescriptor.type = describeGenericType(serviceDescriptor, accessor.getGenericReturnType());
 
                         structure.properties.add(propertyDescriptor);
                     }
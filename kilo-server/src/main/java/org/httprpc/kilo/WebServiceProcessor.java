@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates handler indices for web services at compile time. An index lists
+ * a service's handler methods so that they do not need to be discovered via
+ * reflection when the service is initialized. Handler annotations are also
+ * validated, so that errors that would otherwise be reported at startup are
+ * reported by the compiler instead.
+ */
+@SupportedAnnotationTypes("jakarta.servlet.annotation.WebServlet")
+public class WebServiceProcessor extends AbstractProcessor {
+    private static final String WEB_SERVICE = "org.httprpc.kilo.WebService";
+
+    private Set<Element> rootElements = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        var elements = processingEnv.getElementUtils();
+        var types = processingEnv.getTypeUtils();
+
+        var webService = elements.getTypeElement(WEB_SERVICE);
+
+        if (webService == null) {
+            return false;
+        }
+
+        rootElements.addAll(roundEnvironment.getRootElements());
+
+        for (var annotation : annotations) {
+            for (var element : roundEnvironment.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS
+                    || element.getModifiers().contains(Modifier.ABSTRACT)
+                    || !types.isSubtype(types.erasure(element.asType()), types.erasure(webService.asType()))) {
+                    continue;
+                }
+
+                index((TypeElement)element, webService);
+            }
+        }
+
+        return false;
+    }
+
+    private void index(TypeElement type, TypeElement webService) {
+        var elements = processingEnv.getElementUtils();
+
+        var handlers = new ArrayList<String>();
+
+        var validator = new HandlerValidator();
+
+        var valid = true;
+
+        for (var member : elements.getAllMembers(type)) {
+            if (member.getKind() != ElementKind.METHOD || !member.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+
+            var requestMethod = member.getAnnotation(RequestMethod.class);
+
+            if (requestMethod == null) {
+                continue;
+            }
+
+            var method = (ExecutableElement)member;
+
+            var message = validator.validate(requestMethod.value().toUpperCase(), method::getAnnotation);
+
+            if (message != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, method);
+
+                valid = false;
+            }
+
+            var parameters = method.getParameters();
+
+            var parameterTypeNames = new String[parameters.size()];
+
+            for (var i = 0; i < parameterTypeNames.length; i++) {
+                parameterTypeNames[i] = getTypeName(parameters.get(i).asType());
+            }
+
+            handlers.add(HandlerIndex.format(method.getSimpleName().toString(), parameterTypeNames));
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        var superclasses = getSuperclasses(type, webService);
+
+        if (superclasses == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Handler index not generated (superclass is not compiled with service).", type);
+
+            return;
+        }
+
+        write(type, superclasses, handlers);
+    }
+
+    private List<String> getSuperclasses(TypeElement type, TypeElement webService) {
+        var types = processingEnv.getTypeUtils();
+
+        var superclasses = new ArrayList<String>();
+
+        var superclass = (TypeElement)types.asElement(type.getSuperclass());
+
+        while (!superclass.equals(webService)) {
+            // A superclass from another compilation could change without the service being recompiled
+            if (!rootElements.contains(getOutermostType(superclass))) {
+                return null;
+            }
+
+            superclasses.add(processingEnv.getElementUtils().getBinaryName(superclass).toString());
+
+            superclass = (TypeElement)types.asElement(superclass.getSuperclass());
+        }
+
+        return superclasses;
+    }
+
+    private static Element getOutermostType(TypeElement type) {
+        Element element = type;
+
+        while (element.getEnclosingElement() instanceof TypeElement enclosingType) {
+            element = enclosingType;
+        }
+
+        return element;
+    }
+
+    private String getTypeName(TypeMirror type) {
+        type = processingEnv.getTypeUtils().erasure(type);
+
+        return switch (type.getKind()) {
+            case ARRAY -> getDescriptor(type);
+            case DECLARED -> getBinaryName(type);
+            default -> type.toString();
+        };
+    }
+
+    private String getDescriptor(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "Z";
+            case BYTE -> "B";
+            case CHAR -> "C";
+            case SHORT -> "S";
+            case INT -> "I";
+            case LONG -> "J";
+            case FLOAT -> "F";
+            case DOUBLE -> "D";
+            case ARRAY -> "[" + getDescriptor(((ArrayType)type).getComponentType());
+            case DECLARED -> "L" + getBinaryName(type) + ";";
+            default -> throw new IllegalArgumentException("Unsupported type.");
+        };
+    }
+
+    private String getBinaryName(TypeMirror type) {
+        return processingEnv.getElementUtils().getBinaryName((TypeElement)((DeclaredType)type).asElement()).toString();
+    }
+
+    private void write(TypeElement type, List<String> superclasses, List<String> handlers) {
+        var name = HandlerIndex.getResourceName(processingEnv.getElementUtils().getBinaryName(type).toString());
+
+        try {
+            var fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", name, type);
+
+            try (var writer = new PrintWriter(new OutputStreamWriter(fileObject.openOutputStream(), StandardCharsets.UTF_8))) {
+                for (var superclass : superclasses) {
+                    writer.println(HandlerIndex.formatSuperclass(superclass));
+                }
+
+                for (var handler : handlers) {
+                    writer.println(handler);
+                }
+            }
+        } catch (IOException exception) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, String.format("Unable to write handler index (%s).", exception.getMessage()), type);
+        }
+    }
+}
@@ -21,7 +21,6 @@ import org.httprpc.kilo.beans.BeanAdapter;
 import org.httprpc.kilo.sql.QueryBuilder;
 
 import java.sql.SQLException;
-import java.util.List;
 
 @WebServlet(urlPatterns = {"/bulk-upload/*"}, loadOnStartup = 1)
 public class BulkUploadService extends AbstractDatabaseService {
@@ -29,7 +28,7 @@ public class BulkUploadService extends AbstractDatabaseService {
 
     @RequestMethod("POST")
     @ResourcePath("upload")
-    public void upload(List<Row> rows) throws SQLException {
+    public void upload(Iterable<Row> rows) throws SQLException {
         var queryBuilder = new QueryBuilder();
 
         queryBuilder.appendLine("insert into bulk_upload_test (text1, text2, number1, number2, number3)");
@@ -44,7 +43,7 @@ public class BulkUploadService extends AbstractDatabaseService {
 
     @RequestMethod("POST")
     @ResourcePath("upload-batch")
-    public void uploadBatch(List<Row> rows) throws SQLException {
+    public void uploadBatch(Iterable<Row> rows) throws SQLException {
         var queryBuilder = new QueryBuilder();
 
         queryBuilder.appendLine("insert into bulk_upload_test (text1, text2, number1, number2, number3)");
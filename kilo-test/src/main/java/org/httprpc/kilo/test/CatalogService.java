@@ -15,8 +15,10 @@
 package org.httprpc.kilo.test;
 
 import jakarta.servlet.annotation.WebServlet;
+import org.httprpc.kilo.Cacheable;
 import org.httprpc.kilo.Creates;
 import org.httprpc.kilo.Description;
+import org.httprpc.kilo.ReadOnly;
 import org.httprpc.kilo.RequestMethod;
 import org.httprpc.kilo.ResourcePath;
 import org.httprpc.kilo.beans.BeanAdapter;
@@ -34,6 +36,8 @@ public class CatalogService extends AbstractDatabaseService {
     @RequestMethod("GET")
     @ResourcePath("items")
     @Description("Returns a list of all items in the catalog.")
+    @ReadOnly
+    @Cacheable(ttl = 60000)
     public List<Item> getItems() throws SQLException {
         var queryBuilder = QueryBuilder.select(Item.class).ordered(true);
 
@@ -46,6 +50,8 @@ public class CatalogService extends AbstractDatabaseService {
     @RequestMethod("GET")
     @ResourcePath("items/?")
     @Description("Returns detailed information about a specific item.")
+    @ReadOnly
+    @Cacheable(ttl = 60000)
     public ItemDetail getItem(
         @Description("The item ID.") Integer itemID
     ) throws SQLException {
@@ -74,6 +80,8 @@ public class CatalogService extends AbstractDatabaseService {
             queryBuilder.executeUpdate(statement, new BeanAdapter(item));
         }
 
+        invalidateCache("items");
+
         return getItem(queryBuilder.getGeneratedKey(0, Integer.class));
     }
 
@@ -92,6 +100,8 @@ public class CatalogService extends AbstractDatabaseService {
             queryBuilder.executeUpdate(statement, new BeanAdapter(item));
         }
 
+        invalidateCache("items");
+
         return getItem(itemID);
     }
 
@@ -108,5 +118,7 @@ public class CatalogService extends AbstractDatabaseService {
                 entry("itemID", itemID)
             ));
         }
+
+        invalidateCache("items");
     }
 }
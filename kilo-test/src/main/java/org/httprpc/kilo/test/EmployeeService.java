@@ -14,7 +14,6 @@
 
 package org.httprpc.kilo.test;
 
-import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
 import org.hibernate.cfg.Configuration;
 import org.httprpc.kilo.RequestMethod;
@@ -22,34 +21,23 @@ import org.httprpc.kilo.ResourcePath;
 import org.httprpc.kilo.WebService;
 import org.httprpc.kilo.beans.BeanAdapter;
 import org.httprpc.kilo.sql.QueryBuilder;
+import org.httprpc.kilo.sql.ResultSetAdapter;
 import org.httprpc.kilo.util.concurrent.Pipe;
 
 import java.sql.SQLException;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
-@WebServlet(urlPatterns = {"/employees/*"}, loadOnStartup = 1)
+@WebServlet(urlPatterns = {"/employees/*"}, loadOnStartup = 1, asyncSupported = true)
 public class EmployeeService extends WebService {
-    private static ExecutorService executorService = null;
-
     @Override
     protected String getDataSourceName() {
         return "java:comp/env/jdbc/EmployeeDB";
     }
 
     @Override
-    public void init() throws ServletException {
-        super.init();
-
-        executorService = Executors.newCachedThreadPool();
-    }
-
-    @Override
-    public void destroy() {
-        executorService.shutdown();
-
-        super.destroy();
+    protected boolean isVirtualThreadsEnabled() {
+        return true;
     }
 
     @RequestMethod("GET")
@@ -64,23 +52,27 @@ public class EmployeeService extends WebService {
 
     @RequestMethod("GET")
     @ResourcePath("stream")
-    public Iterable<Employee> getEmployeesStream() {
-        var pipe = new Pipe<Employee>(4096, 15000);
+    public Stream<Employee> getEmployeesStream() throws SQLException {
+        var queryBuilder = QueryBuilder.select(Employee.class);
 
-        var connection = getConnection();
+        var statement = queryBuilder.prepare(getConnection());
+
+        ResultSetAdapter results;
+        try {
+            results = queryBuilder.executeQuery(statement);
+        } catch (SQLException exception) {
+            statement.close();
 
-        executorService.submit(() -> {
-            var queryBuilder = QueryBuilder.select(Employee.class);
+            throw exception;
+        }
 
-            try (var statement = queryBuilder.prepare(connection);
-                var results = queryBuilder.executeQuery(statement)) {
-                pipe.accept(results.stream().map(result -> BeanAdapter.coerce(result, Employee.class)));
+        return results.stream().map(result -> BeanAdapter.coerce(result, Employee.class)).onClose(() -> {
+            try {
+                statement.close();
             } catch (SQLException exception) {
                 throw new RuntimeException(exception);
             }
         });
-
-        return pipe;
     }
 
     @RequestMethod("GET")
@@ -106,7 +98,7 @@ public class EmployeeService extends WebService {
 
         var connection = getConnection();
 
-        executorService.submit(() -> {
+        getExecutorService().submit(() -> {
             var configuration = new Configuration();
 
             configuration.addAnnotatedClass(HibernateEmployee.class);
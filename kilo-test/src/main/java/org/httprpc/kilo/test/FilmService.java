@@ -15,7 +15,10 @@
 package org.httprpc.kilo.test;
 
 import jakarta.servlet.annotation.WebServlet;
+import org.httprpc.kilo.Cacheable;
+import org.httprpc.kilo.Coalesced;
 import org.httprpc.kilo.Description;
+import org.httprpc.kilo.ReadOnly;
 import org.httprpc.kilo.RequestMethod;
 import org.httprpc.kilo.ResourcePath;
 import org.httprpc.kilo.WebService;
@@ -30,6 +33,7 @@ import static org.httprpc.kilo.util.Optionals.*;
 
 @WebServlet(urlPatterns = {"/films/*"}, loadOnStartup = 1)
 @Description("Film example service.")
+@ReadOnly
 public class FilmService extends WebService {
     @Override
     protected String getDataSourceName() {
@@ -38,6 +42,7 @@ public class FilmService extends WebService {
 
     @RequestMethod("GET")
     @Description("Returns a list of all films.")
+    @Cacheable(ttl = 3600000)
     public List<Film> getFilms(
         @Description("An optional name pattern to match. An asterisk may be used as a wildcard.") String match
     ) throws SQLException {
@@ -60,6 +65,7 @@ public class FilmService extends WebService {
     @RequestMethod("GET")
     @ResourcePath("?")
     @Description("Returns detailed information about a specific film.")
+    @Coalesced
     public FilmDetail getFilm(
         @Description("The film ID.") Integer filmID
     ) throws SQLException {
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo.test;
+
+import org.httprpc.kilo.IndexServlet;
+import org.httprpc.kilo.MetricsServlet;
+import org.httprpc.kilo.WebServer;
+
+public class TestServer {
+    public static void main(String[] args) throws Exception {
+        var start = System.currentTimeMillis();
+
+        var webServer = new WebServer((args.length > 0) ? Integer.parseInt(args[0]) : 8080);
+
+        webServer.setContextPath("/kilo-test");
+
+        webServer.addServlet(new GreetingService());
+        webServer.addServlet(new MathService());
+        webServer.addServlet(new MemberService());
+        webServer.addServlet(new TestService());
+        webServer.addServlet(new IndexServlet());
+        webServer.addServlet(new MetricsServlet(), "/metrics");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(webServer::stop));
+
+        webServer.start();
+
+        System.out.printf("Listening on port %d (started in %d ms).\n", webServer.getPort(), System.currentTimeMillis() - start);
+    }
+}
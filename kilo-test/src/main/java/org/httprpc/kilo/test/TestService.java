@@ -14,14 +14,19 @@
 
 package org.httprpc.kilo.test;
 
+import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.MultipartConfig;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.Part;
 import org.httprpc.kilo.Accepts;
+import org.httprpc.kilo.AccessLog;
+import org.httprpc.kilo.Cacheable;
+import org.httprpc.kilo.Conditional;
 import org.httprpc.kilo.Creates;
 import org.httprpc.kilo.Description;
 import org.httprpc.kilo.FormData;
 import org.httprpc.kilo.Name;
+import org.httprpc.kilo.RateLimit;
 import org.httprpc.kilo.RequestMethod;
 import org.httprpc.kilo.Required;
 import org.httprpc.kilo.ResourcePath;
@@ -29,7 +34,9 @@ import org.httprpc.kilo.beans.BeanAdapter;
 import org.httprpc.kilo.io.TextEncoder;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.file.Files;
 import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.Instant;
@@ -48,10 +55,14 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.httprpc.kilo.util.Collections.*;
 
-@WebServlet(urlPatterns = {"/test/*"}, loadOnStartup = 1)
+@WebServlet(urlPatterns = {"/test/*"}, loadOnStartup = 1, asyncSupported = true)
 @MultipartConfig
 public class TestService extends AbstractDatabaseService {
     public interface A {
@@ -170,6 +181,62 @@ public class TestService extends AbstractDatabaseService {
         }
     }
 
+    private static final AtomicInteger cachedInvocationCount = new AtomicInteger();
+    private static final AtomicInteger failedInvocationCount = new AtomicInteger();
+
+    private AccessLog accessLog = null;
+
+    @Override
+    public void init() throws ServletException {
+        try {
+            accessLog = new AccessLog(Files.createTempFile("kilo-test", ".log"));
+        } catch (IOException exception) {
+            throw new ServletException(exception);
+        }
+
+        super.init();
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+
+        try {
+            accessLog.close();
+
+            Files.deleteIfExists(accessLog.getPath());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (IOException exception) {
+            log(exception.getMessage(), exception);
+        }
+    }
+
+    @Override
+    protected int getBatchConcurrency() {
+        return 4;
+    }
+
+    @Override
+    protected boolean isServerTimingEnabled() {
+        return true;
+    }
+
+    @Override
+    protected boolean isResourceAccountingEnabled() {
+        return true;
+    }
+
+    @Override
+    protected int getMaximumBufferSize() {
+        return 65536;
+    }
+
+    @Override
+    protected AccessLog getAccessLog() {
+        return accessLog;
+    }
+
     @RequestMethod("GET")
     public Response testGet(@Required String string, List<String> strings,
         Integer number, Set<Integer> numbers, boolean flag, char character, DayOfWeek dayOfWeek,
@@ -240,6 +307,50 @@ public class TestService extends AbstractDatabaseService {
         return new FibonacciSequence(count);
     }
 
+    @RequestMethod("GET")
+    @ResourcePath("cached")
+    @Cacheable(ttl = 60000, timeout = 250)
+    public int testCached(String key, int delay) throws InterruptedException {
+        Thread.sleep(delay);
+
+        return cachedInvocationCount.incrementAndGet();
+    }
+
+    @RequestMethod("GET")
+    @ResourcePath("cached-failure")
+    @Cacheable(ttl = 60000)
+    public int testCachedFailure(int delay) throws InterruptedException {
+        Thread.sleep(delay);
+
+        throw new IllegalStateException(String.valueOf(failedInvocationCount.incrementAndGet()));
+    }
+
+    @RequestMethod("GET")
+    @ResourcePath("limited")
+    @RateLimit(limit = 2, period = 60000)
+    public void testRateLimit() {
+        // No-op
+    }
+
+    @RequestMethod("GET")
+    @ResourcePath("access-log")
+    public List<String> testGetAccessLog() throws IOException {
+        return Files.readAllLines(accessLog.getPath());
+    }
+
+    @RequestMethod("GET")
+    @ResourcePath("conditional")
+    @Conditional
+    public List<Integer> testConditional(int count) {
+        var values = new ArrayList<Integer>(count);
+
+        for (var i = 0; i < count; i++) {
+            values.add(i);
+        }
+
+        return values;
+    }
+
     @RequestMethod("GET")
     @ResourcePath("c")
     public C testGetC() {
@@ -283,6 +394,18 @@ public class TestService extends AbstractDatabaseService {
         return list;
     }
 
+    @RequestMethod("POST")
+    @ResourcePath("sum")
+    public int testPostSum(Iterable<Integer> values) {
+        var sum = 0;
+
+        for (var value : values) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
     @RequestMethod("POST")
     @ResourcePath("map")
     public Map<String, Double> testPostMap(Map<String, Double> map) {
@@ -334,12 +457,53 @@ public class TestService extends AbstractDatabaseService {
         );
     }
 
+    @RequestMethod("POST")
+    @ResourcePath("form-data/stream")
+    @FormData
+    public Map<String, Object> testPostStreamingFormData(@Required String string, Iterator<Part> parts) throws IOException {
+        var names = new ArrayList<String>();
+
+        var totalFileSize = 0L;
+
+        while (parts.hasNext()) {
+            var part = parts.next();
+
+            names.add(part.getName());
+
+            try (var inputStream = part.getInputStream()) {
+                totalFileSize += inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+
+        return mapOf(
+            entry("string", string),
+            entry("names", names),
+            entry("totalFileSize", totalFileSize)
+        );
+    }
+
     @RequestMethod("POST")
     @ResourcePath("image")
     public void testPostImage(Void body) throws IOException {
         echo();
     }
 
+    @RequestMethod("GET")
+    @ResourcePath("bytes")
+    public void testGetBytes(int count) throws IOException {
+        var response = getResponse();
+
+        response.setContentType("application/octet-stream");
+
+        var outputStream = response.getOutputStream();
+
+        for (var i = 0; i < count; i++) {
+            outputStream.write(i);
+        }
+
+        outputStream.flush();
+    }
+
     @RequestMethod("POST")
     @ResourcePath("deferred")
     @Accepts
@@ -419,6 +583,22 @@ public class TestService extends AbstractDatabaseService {
         return value;
     }
 
+    @RequestMethod("GET")
+    @ResourcePath("deadline")
+    public boolean testDeadline(int delay) throws InterruptedException {
+        Thread.sleep(delay);
+
+        getConnection();
+
+        return true;
+    }
+
+    @RequestMethod("GET")
+    @ResourcePath("async")
+    public CompletionStage<Integer> testAsync(int value, int delay) {
+        return CompletableFuture.supplyAsync(() -> value, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
     @RequestMethod("GET")
     @ResourcePath("math/sum")
     public double getSum(double a, double b) {
@@ -17,6 +17,7 @@ package org.httprpc.kilo.test;
 import org.httprpc.kilo.RequestMethod;
 import org.httprpc.kilo.ResourcePath;
 import org.httprpc.kilo.ServicePath;
+import org.httprpc.kilo.WebServiceProxy;
 
 import java.io.IOException;
 import java.util.List;
@@ -24,6 +25,7 @@ import java.util.List;
 @ServicePath("films")
 public interface FilmServiceProxy {
     @RequestMethod("GET")
+    @WebServiceProxy.Configuration(readTimeout = 15000, propagateTimeout = true)
     List<Film> getFilms(String match) throws IOException;
 
     @RequestMethod("GET")
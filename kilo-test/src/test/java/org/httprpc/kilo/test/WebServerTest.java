@@ -0,0 +1,94 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.httprpc.kilo.test;
+
+import jakarta.servlet.ServletException;
+import org.httprpc.kilo.IndexServlet;
+import org.httprpc.kilo.WebServer;
+import org.httprpc.kilo.WebServiceException;
+import org.httprpc.kilo.WebServiceProxy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.httprpc.kilo.util.Collections.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebServerTest {
+    @Test
+    public void testWebServer() throws IOException, ServletException {
+        var webServer = new WebServer(0);
+
+        webServer.setContextPath("/embedded");
+
+        webServer.addServlet(new GreetingService());
+        webServer.addServlet(new MathService());
+        webServer.addServlet(new IndexServlet());
+
+        webServer.start();
+
+        try {
+            var baseURI = URI.create(String.format("http://localhost:%d/embedded/", webServer.getPort()));
+
+            assertEquals("Hello, World!", new WebServiceProxy("GET", baseURI.resolve("/embedded")).invoke());
+
+            var mathServiceProxy = WebServiceProxy.of(MathServiceProxy.class, baseURI);
+
+            assertEquals(6.0, mathServiceProxy.getSum(listOf(1.0, 2.0, 3.0)));
+
+            var webServiceProxy = new WebServiceProxy("GET", baseURI);
+
+            webServiceProxy.setHeaders(mapOf(
+                entry("Accept", "application/json")
+            ));
+
+            assertInstanceOf(Iterable.class, webServiceProxy.invoke());
+        } finally {
+            webServer.stop();
+        }
+    }
+
+    @Test
+    public void testMaxFormSize() throws IOException, ServletException {
+        var webServer = new WebServer(0);
+
+        webServer.setMaxFormSize(256);
+
+        webServer.addServlet(new TestService());
+
+        webServer.start();
+
+        try {
+            var baseURI = URI.create(String.format("http://localhost:%d/", webServer.getPort()));
+
+            for (var multipart : listOf(false, true)) {
+                var webServiceProxy = new WebServiceProxy("POST", baseURI.resolve("test/form-data"));
+
+                webServiceProxy.setBody(mapOf(
+                    entry("string", "x".repeat(512))
+                ));
+
+                webServiceProxy.setRequestHandler(new WebServiceProxy.FormDataRequestHandler(multipart));
+
+                var exception = assertThrows(WebServiceException.class, webServiceProxy::invoke);
+
+                assertEquals(413, exception.getStatusCode());
+            }
+        } finally {
+            webServer.stop();
+        }
+    }
+}
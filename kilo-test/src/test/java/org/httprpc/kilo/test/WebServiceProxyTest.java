@@ -17,6 +17,7 @@ package org.httprpc.kilo.test;
 import org.httprpc.kilo.WebServiceException;
 import org.httprpc.kilo.WebServiceProxy;
 import org.httprpc.kilo.beans.BeanAdapter;
+import org.httprpc.kilo.io.JSONDecoder;
 import org.httprpc.kilo.io.TextDecoder;
 import org.httprpc.kilo.io.TextEncoder;
 import org.junit.jupiter.api.Test;
@@ -24,16 +25,20 @@ import org.junit.jupiter.api.Test;
 import javax.imageio.ImageIO;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
 import java.time.*;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.httprpc.kilo.util.Collections.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -304,6 +309,40 @@ public class WebServiceProxyTest {
         assertEquals(403, exception.getStatusCode());
     }
 
+    @Test
+    public void testIterablePost() throws IOException {
+        var webServiceProxy = new WebServiceProxy("POST", baseURI.resolve("test/sum"));
+
+        webServiceProxy.setBody(listOf(1, 2, 3));
+
+        assertEquals(6, webServiceProxy.invoke());
+    }
+
+    @Test
+    public void testMalformedIterablePost() {
+        var webServiceProxy = new WebServiceProxy("POST", baseURI.resolve("test/sum"));
+
+        webServiceProxy.setBody("[1, 2, x]");
+
+        webServiceProxy.setRequestHandler(new WebServiceProxy.RequestHandler() {
+            @Override
+            public String getContentType() {
+                return "application/json";
+            }
+
+            @Override
+            public void encodeRequest(Object body, OutputStream outputStream) throws IOException {
+                var textEncoder = new TextEncoder();
+
+                textEncoder.write(body, outputStream);
+            }
+        });
+
+        var exception = assertThrows(WebServiceException.class, webServiceProxy::invoke);
+
+        assertEquals(403, exception.getStatusCode());
+    }
+
     @Test
     public void testMapPost() throws IOException {
         var body = mapOf(
@@ -417,6 +456,100 @@ public class WebServiceProxyTest {
         assertEquals(10444, result.get("totalFileSize"));
     }
 
+    @Test
+    public void testStreamingFormDataPost() throws URISyntaxException, IOException {
+        var textURL = getClass().getResource("test.txt");
+        var imageURL = getClass().getResource("test.jpg");
+
+        var body = mapOf(
+            entry("string", "héllo&gøod+bye?"),
+            entry("file", Paths.get(textURL.toURI())),
+            entry("files", listOf(Paths.get(textURL.toURI()), Paths.get(imageURL.toURI())))
+        );
+
+        var webServiceProxy = new WebServiceProxy("POST", baseURI.resolve("test/form-data/stream"));
+
+        webServiceProxy.setBody(body);
+
+        webServiceProxy.setRequestHandler(new WebServiceProxy.FormDataRequestHandler());
+
+        var result = (Map<?, ?>)webServiceProxy.invoke();
+
+        assertEquals("héllo&gøod+bye?", result.get("string"));
+        assertEquals(listOf("file", "files", "files"), result.get("names"));
+        assertEquals(10444, result.get("totalFileSize"));
+    }
+
+    @Test
+    public void testBatch() throws IOException {
+        var webServiceProxy = new WebServiceProxy("POST", baseURI.resolve("test?batch"));
+
+        webServiceProxy.setBody(listOf(
+            mapOf(
+                entry("method", "GET"),
+                entry("path", "/fibonacci"),
+                entry("query", mapOf(entry("count", 8)))
+            ),
+            mapOf(
+                entry("method", "POST"),
+                entry("path", "/list"),
+                entry("body", listOf("a", "b", "c"))
+            ),
+            mapOf(
+                entry("method", "DELETE"),
+                entry("path", "/101")
+            ),
+            mapOf(
+                entry("method", "GET"),
+                entry("path", "/xyz")
+            )
+        ));
+
+        var result = webServiceProxy.invoke();
+
+        assertEquals(listOf(
+            mapOf(
+                entry("status", 200),
+                entry("body", listOf(0, 1, 1, 2, 3, 5, 8, 13))
+            ),
+            mapOf(
+                entry("status", 200),
+                entry("body", listOf("a", "b", "c"))
+            ),
+            mapOf(
+                entry("status", 200),
+                entry("body", 101)
+            ),
+            mapOf(
+                entry("status", 405),
+                entry("body", null)
+            )
+        ), result);
+    }
+
+    @Test
+    public void testBinaryBatch() throws IOException {
+        var webServiceProxy = new WebServiceProxy("POST", baseURI.resolve("test?batch"));
+
+        webServiceProxy.setBody(listOf(
+            mapOf(
+                entry("method", "GET"),
+                entry("path", "/bytes"),
+                entry("query", mapOf(entry("count", 4)))
+            )
+        ));
+
+        var result = webServiceProxy.invoke();
+
+        assertEquals(listOf(
+            mapOf(
+                entry("status", 200),
+                entry("contentType", "application/octet-stream"),
+                entry("body", Base64.getEncoder().encodeToString(new byte[] {0, 1, 2, 3}))
+            )
+        ), result);
+    }
+
     @Test
     public void testImagePost() throws IOException {
         var webServiceProxy = new WebServiceProxy("POST", baseURI.resolve("test/image"));
@@ -729,6 +862,299 @@ public class WebServiceProxyTest {
         assertThrows(SocketTimeoutException.class, () -> testServiceProxy.testTimeout(123, 6000));
     }
 
+    @Test
+    public void testDeadline() {
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/deadline"));
+
+        webServiceProxy.setArguments(mapOf(
+            entry("delay", 500)
+        ));
+
+        webServiceProxy.setHeaders(mapOf(
+            entry("Request-Timeout", 100)
+        ));
+
+        var exception = assertThrows(WebServiceException.class, webServiceProxy::invoke);
+
+        assertEquals(504, exception.getStatusCode());
+    }
+
+    @Test
+    public void testAsync() throws IOException {
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/async"));
+
+        webServiceProxy.setArguments(mapOf(
+            entry("value", 123),
+            entry("delay", 500)
+        ));
+
+        var result = webServiceProxy.invoke();
+
+        assertEquals(123, result);
+    }
+
+    @Test
+    public void testNotModified() throws IOException {
+        var connection = (HttpURLConnection)baseURI.resolve("test/conditional?count=8").toURL().openConnection();
+
+        assertEquals(200, connection.getResponseCode());
+
+        var eTag = connection.getHeaderField("ETag");
+
+        assertNotNull(eTag);
+
+        try (var inputStream = connection.getInputStream()) {
+            assertEquals(listOf(0, 1, 2, 3, 4, 5, 6, 7), new JSONDecoder().read(inputStream));
+        }
+
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/conditional"));
+
+        webServiceProxy.setArguments(mapOf(
+            entry("count", 8)
+        ));
+
+        webServiceProxy.setHeaders(mapOf(
+            entry("If-None-Match", eTag)
+        ));
+
+        assertNull(webServiceProxy.invoke());
+        assertEquals(304, webServiceProxy.getStatusCode());
+
+        webServiceProxy.setArguments(mapOf(
+            entry("count", 4)
+        ));
+
+        assertEquals(listOf(0, 1, 2, 3), webServiceProxy.invoke());
+        assertEquals(200, webServiceProxy.getStatusCode());
+    }
+
+    @Test
+    public void testCached() throws IOException {
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/cached"));
+
+        webServiceProxy.setArguments(mapOf(
+            entry("key", "a")
+        ));
+
+        var result = webServiceProxy.invoke();
+
+        assertEquals(result, webServiceProxy.invoke());
+
+        webServiceProxy.setArguments(mapOf(
+            entry("key", "b")
+        ));
+
+        assertNotEquals(result, webServiceProxy.invoke());
+    }
+
+    @Test
+    public void testCacheTimeout() throws InterruptedException {
+        Map<String, Object> arguments = mapOf(
+            entry("key", "c"),
+            entry("delay", 2000)
+        );
+
+        var leader = CompletableFuture.runAsync(() -> {
+            var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/cached"));
+
+            webServiceProxy.setArguments(arguments);
+
+            try {
+                webServiceProxy.invoke();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+
+        Thread.sleep(500);
+
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/cached"));
+
+        webServiceProxy.setArguments(arguments);
+
+        var exception = assertThrows(WebServiceException.class, webServiceProxy::invoke);
+
+        assertEquals(503, exception.getStatusCode());
+
+        leader.join();
+    }
+
+    @Test
+    public void testCachedFailure() throws InterruptedException {
+        var leader = CompletableFuture.supplyAsync(() -> {
+            var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/cached-failure"));
+
+            webServiceProxy.setArguments(mapOf(
+                entry("delay", 1000)
+            ));
+
+            return assertThrows(WebServiceException.class, webServiceProxy::invoke);
+        });
+
+        Thread.sleep(300);
+
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/cached-failure"));
+
+        webServiceProxy.setArguments(mapOf(
+            entry("delay", 1000)
+        ));
+
+        var exception = assertThrows(WebServiceException.class, webServiceProxy::invoke);
+
+        assertEquals(409, exception.getStatusCode());
+
+        // The follower receives the leader's error rather than invoking the method again
+        assertEquals(leader.join().getMessage(), exception.getMessage());
+    }
+
+    @Test
+    public void testRateLimit() throws IOException {
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/limited"));
+
+        WebServiceException exception = null;
+
+        // The quota may already have been partially consumed by a previous run
+        for (var i = 0; i < 3 && exception == null; i++) {
+            try {
+                webServiceProxy.invoke();
+            } catch (WebServiceException webServiceException) {
+                exception = webServiceException;
+            }
+        }
+
+        assertNotNull(exception);
+        assertEquals(429, exception.getStatusCode());
+    }
+
+    @Test
+    public void testUnconditional() throws IOException {
+        var connection = (HttpURLConnection)baseURI.resolve("test/fibonacci?count=8").toURL().openConnection();
+
+        assertEquals(200, connection.getResponseCode());
+        assertNull(connection.getHeaderField("ETag"));
+    }
+
+    @Test
+    public void testConditionalOverflow() throws IOException {
+        var connection = (HttpURLConnection)baseURI.resolve("test/conditional?count=20000").toURL().openConnection();
+
+        assertEquals(200, connection.getResponseCode());
+        assertNull(connection.getHeaderField("ETag"));
+
+        try (var inputStream = connection.getInputStream()) {
+            var result = (List<?>)new JSONDecoder().read(inputStream);
+
+            assertEquals(20000, result.size());
+            assertEquals(19999, result.get(19999));
+        }
+    }
+
+    @Test
+    public void testServerTiming() throws IOException {
+        var connection = (HttpURLConnection)baseURI.resolve("test/fibonacci?count=8").toURL().openConnection();
+
+        try {
+            assertEquals(200, connection.getResponseCode());
+
+            var serverTiming = connection.getHeaderField("Server-Timing");
+
+            assertNotNull(serverTiming);
+
+            assertTrue(serverTiming.contains("routing;dur="));
+            assertTrue(serverTiming.contains("handler;dur="));
+            assertTrue(serverTiming.contains("sql;dur="));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void testAccessLog() throws IOException, InterruptedException {
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/limited"));
+
+        try {
+            webServiceProxy.invoke();
+        } catch (WebServiceException exception) {
+            assertEquals(429, exception.getStatusCode());
+        }
+
+        String[] fields = null;
+
+        // Entries are written asynchronously
+        for (var i = 0; i < 50 && fields == null; i++) {
+            var lines = (List<?>)new WebServiceProxy("GET", baseURI.resolve("test/access-log")).invoke();
+
+            for (var line : lines) {
+                var values = line.toString().split(" ");
+
+                if (values.length >= 6 && values[1].equals("GET") && values[2].equals("/test/limited")) {
+                    fields = values;
+                    break;
+                }
+            }
+
+            if (fields == null) {
+                Thread.sleep(100);
+            }
+        }
+
+        assertNotNull(fields);
+        assertTrue(fields[3].equals("204") || fields[3].equals("429"));
+    }
+
+    @Test
+    public void testMetrics() throws IOException {
+        var testServiceProxy = WebServiceProxy.of(TestServiceProxy.class, baseURI);
+
+        testServiceProxy.getFibonacciSequence(8);
+
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("metrics"));
+
+        webServiceProxy.setResponseHandler((inputStream, contentType) -> {
+            var textDecoder = new TextDecoder();
+
+            return textDecoder.read(inputStream);
+        });
+
+        var result = (String)webServiceProxy.invoke();
+
+        assertTrue(result.contains("# TYPE kilo_requests_total counter\n"));
+        assertTrue(result.contains("kilo_requests_total{method=\"GET\",path=\"/test/fibonacci\"} "));
+        assertTrue(result.contains("kilo_responses_total{method=\"GET\",path=\"/test/fibonacci\",status=\"2xx\"} "));
+        assertTrue(result.contains("kilo_request_duration_seconds_count{method=\"GET\",path=\"/test/fibonacci\",phase=\"handler\"} "));
+    }
+
+    @Test
+    public void testResourceAccounting() throws IOException {
+        var connection = (HttpURLConnection)baseURI.resolve("test/fibonacci?count=8").toURL().openConnection();
+
+        try {
+            assertEquals(200, connection.getResponseCode());
+
+            var serverTiming = connection.getHeaderField("Server-Timing");
+
+            assertNotNull(serverTiming);
+
+            assertTrue(serverTiming.contains("cpu;dur="));
+            assertTrue(serverTiming.contains("alloc;desc="));
+        } finally {
+            connection.disconnect();
+        }
+
+        var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("metrics"));
+
+        webServiceProxy.setResponseHandler((inputStream, contentType) -> {
+            var textDecoder = new TextDecoder();
+
+            return textDecoder.read(inputStream);
+        });
+
+        var result = (String)webServiceProxy.invoke();
+
+        assertTrue(result.contains("kilo_request_cpu_seconds_count{method=\"GET\",path=\"/test/fibonacci\",phase=\"handler\"} "));
+        assertTrue(result.contains("kilo_request_allocated_bytes_count{method=\"GET\",path=\"/test/fibonacci\",phase=\"encode\"} "));
+    }
+
     @Test
     public void testMathDelegation1() throws IOException {
         var webServiceProxy = new WebServiceProxy("GET", baseURI.resolve("test/math/sum"));